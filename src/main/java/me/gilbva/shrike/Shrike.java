@@ -17,6 +17,8 @@
 package me.gilbva.shrike;
 
 import me.gilbva.shrike.container.IocContextFactoryImpl;
+import me.gilbva.shrike.context.ComponentPool;
+import me.gilbva.shrike.context.ContextBinding;
 import me.gilbva.shrike.context.IocContext;
 import me.gilbva.shrike.context.IocContextFactory;
 import me.gilbva.shrike.navigation.ClassRepository;
@@ -25,17 +27,26 @@ import me.gilbva.shrike.scope.Scope;
 
 import java.io.PrintWriter;
 import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 /**
  * Facade for the Shrike IoC API.
  * <p>
  * This class provides the method context() which will deliver the IocContext
- * for the application scope.
+ * for the application scope. The lookups of this class are resolved against
+ * the context bound to the current task with
+ * {@link me.gilbva.shrike.context.ContextBinding}, if any.
  *
  * @author Gilberto Vento
  */
 public class Shrike {
-    private static IocContext<Application> appContext;
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private static volatile IocContext<Application> appContext;
 
     private static IocContextFactory findFactory() {
         return IocContextFactoryImpl.getInstance();
@@ -56,16 +67,77 @@ public class Shrike {
      * application.
      */
     public static IocContext<Application> context() {
-        if (appContext == null) {
-            var factory = findFactory();
-            if (factory == null) {
-                String message = "IoC container provider service was not found on the class path.";
-                message += " You must include an IoC container dependency like 'shrike-ioc-container' in your class path.";
-                throw new IllegalStateException(message);
+        var result = appContext;
+        if (result == null) {
+            LOCK.lock();
+            try {
+                result = appContext;
+                if (result == null) {
+                    var factory = findFactory();
+                    if (factory == null) {
+                        String message = "IoC container provider service was not found on the class path.";
+                        message += " You must include an IoC container dependency like 'shrike-ioc-container' in your class path.";
+                        throw new IllegalStateException(message);
+                    }
+                    result = factory.createApplicationContext(Application.getInstance());
+                    appContext = result;
+                }
+            } finally {
+                LOCK.unlock();
             }
-            appContext = factory.createApplicationContext(Application.getInstance());
         }
-        return appContext;
+        return result;
+    }
+
+    /**
+     * Creates a new root context of the application scope, independent from
+     * the one returned by {@link #context()}, like the context of a tenant
+     * of a multi-tenant server. Every root context has its own instances of
+     * the components, but all of them share the metadata of the components,
+     * so an additional root context only costs its instances and a small
+     * slot table. The lookups of this class are resolved against a root
+     * context while it is bound to the current task with
+     * {@link ContextBinding}.
+     *
+     * @return The new root context, it must be closed when it is not needed
+     * anymore.
+     */
+    public static IocContext<Application> createRoot() {
+        var factory = findFactory();
+        if (factory == null) {
+            throw new IllegalStateException("IoC container provider service was not found on the class path.");
+        }
+        return factory.createApplicationContext(Application.getInstance());
+    }
+
+    /**
+     * Creates a new application context where the lookups of the given
+     * services return the given objects, like stubs in a test. It shares the
+     * metadata of the components with the application context and starts
+     * without instances.
+     *
+     * @param overrides The objects that replace the components, by the
+     *                  service they provide.
+     * @return The new context, it must be closed after the test.
+     * @see IocContext#withOverrides(Map)
+     */
+    public static IocContext<Application> withOverrides(Map<Type, Object> overrides) {
+        return context().withOverrides(overrides);
+    }
+
+    /**
+     * Gets the context the lookups of this class are resolved against, this
+     * is the innermost context bound to the current task with
+     * {@link ContextBinding}, or the application context if there is none.
+     *
+     * @return The current context.
+     */
+    public static IocContext<?> current() {
+        var bound = ContextBinding.current();
+        if (bound != null) {
+            return bound;
+        }
+        return context();
     }
 
     /**
@@ -82,7 +154,7 @@ public class Shrike {
      * provided, or null if no component provides this services in the context.
      */
     public static <T> T find(Class<T> service) {
-        return context().find(service);
+        return current().find(service);
     }
 
     /**
@@ -102,7 +174,26 @@ public class Shrike {
      * provided, or null if no component provides this services in the context.
      */
     public static <T> T findNext(Class<T> service, int priority) {
-        return context().findNext(service, priority);
+        return current().findNext(service, priority);
+    }
+
+    /**
+     * This method finds the highest priority component that provides the given
+     * service without blocking the calling thread.
+     * <p>
+     *
+     * @param <T>     The generic type of the class of the service that this method
+     *                should find.
+     * @param service The class that represents the service that this method
+     *                must find.
+     *                <p>
+     * @return A future with an object that extends or implement the class of the
+     * service provided, or null if no component provides this services in the
+     * context.
+     * @see IocContext#findAsync(Class)
+     */
+    public static <T> CompletableFuture<T> findAsync(Class<T> service) {
+        return current().findAsync(service);
     }
 
     /**
@@ -119,7 +210,25 @@ public class Shrike {
      * services in the context.
      */
     public static <T> T[] findAll(Class<T> service) {
-        return context().findAll(service);
+        return current().findAll(service);
+    }
+
+    /**
+     * This method finds all the components that provides the given service
+     * lazily, the components are created one by one in priority order only as
+     * the stream advances.
+     * <p>
+     *
+     * @param <T>     The generic type of the class of the service that this method
+     *                should find.
+     * @param service The class that represents the service that this method
+     *                must find.
+     *                <p>
+     * @return A lazy ordered stream of the components that provide the service.
+     * @see IocContext#stream(Class)
+     */
+    public static <T> Stream<T> stream(Class<T> service) {
+        return current().stream(service);
     }
 
     /**
@@ -134,7 +243,23 @@ public class Shrike {
      * if no component provides this services in the context.
      */
     public static Object findGeneric(Type service) {
-        return context().findGeneric(service);
+        return current().findGeneric(service);
+    }
+
+    /**
+     * This method finds the highest priority component that provides the given
+     * generic service without blocking the calling thread.
+     * <p>
+     *
+     * @param service The {@link java.lang.reflect.Type} that represents the
+     *                service that this method must find.
+     *                <p>
+     * @return A future with an object that extends or implement the service
+     * provided, or null if no component provides this services in the context.
+     * @see IocContext#findGenericAsync(Type)
+     */
+    public static CompletableFuture<Object> findGenericAsync(Type service) {
+        return current().findGenericAsync(service);
     }
 
     /**
@@ -152,7 +277,7 @@ public class Shrike {
      * if no component provides this services in the context.
      */
     public static Object findNextGeneric(Type service, int priority) {
-        return context().findNextGeneric(service, priority);
+        return current().findNextGeneric(service, priority);
     }
 
     /**
@@ -166,7 +291,7 @@ public class Shrike {
      * {@literal false} otherwise.
      */
     public static boolean exists(Type service) {
-        return context().exists(service);
+        return current().exists(service);
     }
 
     /**
@@ -179,7 +304,122 @@ public class Shrike {
      * context, {@literal false} otherwise.
      */
     boolean existsComponent(Class<?> component) {
-        return context().existsComponent(component);
+        return current().existsComponent(component);
+    }
+
+    /**
+     * Injects the {@link me.gilbva.shrike.annotations.Inject} and
+     * {@link me.gilbva.shrike.annotations.InjectNext} fields of an object that
+     * was not created by the container.
+     *
+     * @param instance The object to inject.
+     * @see IocContext#injectMembers(Object)
+     */
+    public static void injectMembers(Object instance) {
+        current().injectMembers(instance);
+    }
+
+    /**
+     * Gets the pool of a pooled component.
+     *
+     * @param <T> The type of the component.
+     * @param cls The class of the pooled component.
+     * @return The pool of the component, or null if the class is not a
+     * pooled component.
+     * @see IocContext#findPool(Class)
+     */
+    public static <T> ComponentPool<T> findPool(Class<T> cls) {
+        return current().findPool(cls);
+    }
+
+    /**
+     * Closes the thread scoped components of the current thread.
+     *
+     * @see IocContext#releaseThread()
+     */
+    public static void releaseThread() {
+        context().releaseThread();
+    }
+
+    /**
+     * Drops everything cached for the classes of a discarded class loader,
+     * like the one of a plugin that was redeployed, so the loader can be
+     * collected. The contexts of the scopes of the loader must be closed
+     * before.
+     *
+     * @param loader The class loader being discarded.
+     * @throws IllegalArgumentException If the loader is null.
+     * @see IocContext#unload(ClassLoader)
+     */
+    public static void unload(ClassLoader loader) {
+        if (loader == null) {
+            throw new IllegalArgumentException("loader");
+        }
+        var result = appContext;
+        if (result != null) {
+            result.unload(loader);
+        }
+        findFactory().unload(loader);
+    }
+
+    /**
+     * Closes the application context and drops all the cached metadata of
+     * the scopes and components, the next lookup creates a new application
+     * context reading the class path again.
+     */
+    public static void reset() {
+        LOCK.lock();
+        try {
+            var result = appContext;
+            appContext = null;
+            if (result != null) {
+                result.close();
+            }
+            findFactory().reset();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Gets a future that completes when the application context is fully
+     * initialized, this is when all the components marked with
+     * {@literal @Component(instantiate = true)} are created and their
+     * asynchronous {@link me.gilbva.shrike.annotations.ComponentInit} methods
+     * have completed.
+     *
+     * @return A future that completes with the application context once it
+     * is fully initialized.
+     */
+    public static CompletableFuture<IocContext<Application>> whenInitialized() {
+        return context().whenInitialized();
+    }
+
+    /**
+     * Creates in background the components of the application context that
+     * provide the given services, so they are ready by the time they are
+     * requested.
+     *
+     * @param executor The executor to create the components in.
+     * @param services The services to warm up.
+     * @return A future that completes when all the components are created and
+     * initialized.
+     * @see IocContext#warmUp(Executor, Type...)
+     */
+    public static CompletableFuture<Void> warmUp(Executor executor, Type... services) {
+        return context().warmUp(executor, services);
+    }
+
+    /**
+     * Creates in background all the components of the application context.
+     *
+     * @param executor The executor to create the components in.
+     * @return A future that completes when all the components are created and
+     * initialized.
+     * @see IocContext#warmUpAll(Executor)
+     */
+    public static CompletableFuture<Void> warmUpAll(Executor executor) {
+        return context().warmUpAll(executor);
     }
 
     /**
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.annotations;
+
+import me.gilbva.shrike.scope.Application;
+import me.gilbva.shrike.scope.Scope;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an interface as a factory of objects that need both runtime arguments
+ * and components of the container. Every method of the interface creates a
+ * new instance of its return type with the constructor whose parameters match
+ * the parameters of the method, and then injects its {@link Inject} and
+ * {@link InjectNext} fields. The created objects are not managed by the
+ * container, their init and destroy methods are not called.
+ * <p>
+ * The implementation of the factory is generated as a component by the
+ * annotations processor, if the processor did not run the factory is bound at
+ * runtime the first time it is requested.
+ *
+ * @author Gilberto Vento
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface AssistedFactory {
+    /**
+     * Defines the scope of the factory, the dependencies of the created
+     * objects are resolved in the context of this scope.
+     *
+     * @return The class that represents the scope of the factory.
+     */
+    Class<? extends Scope> scope() default Application.class;
+}
@@ -43,11 +43,27 @@ public @interface Component {
     Class<? extends Scope> scope() default Application.class;
 
     /**
-     * If the component must be instantiate eager or lazy
+     * If the component must be instantiate eager or lazy, eager components
+     * are created in background when the context is created, the ones that
+     * do not depend on each other are created in parallel.
      *
      * @return true the component will be instantiated eager, the default is
      * false witch means that the component will be instantiated lazy
      * the first time some one request it.
      */
     boolean instantiate() default false;
+
+    /**
+     * If the component is a prototype, a new instance of a prototype component
+     * is created for every lookup and every injection point, the context does
+     * not keep it, so its destroy methods are never called. The singleton
+     * dependencies of a prototype are resolved once per context and reused for
+     * every new instance. Prototype components are never instantiated eager,
+     * and must not depend on themselves.
+     *
+     * @return true a new instance is created on every request, the default
+     * is false witch means that there is only one instance of the component
+     * in its context.
+     */
+    boolean prototype() default false;
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation specify that the method on witch is declared is a destroy
+ * method, the container will call this method when the context that holds the
+ * component is closed, so the component can release its buffers, connections
+ * or threads. Destroy methods are called in the reverse order in witch the
+ * components were initialized, so a component is destroyed before the
+ * components it depends on.
+ * <p>
+ * If a context is never closed the destroy methods are called after the
+ * context becomes unreachable, as long as the components with destroy
+ * methods do not hold a reference to the context.
+ *
+ * @author Gilberto Vento
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ComponentDestroy {
+}
@@ -27,6 +27,11 @@ import java.lang.annotation.Target;
  * after all or most dependency fields are injected. WARNING the component may
  * not have all of its dependencies injected at the moment of the call of this
  * method for components that have some kind of circular dependencies.
+ * <p>
+ * An init method may return a {@link java.util.concurrent.CompletionStage}
+ * to initialize the component asynchronously, the component will not be
+ * injected into other components, nor returned by the context, until the
+ * returned stage completes.
  *
  * @author Gilberto Vento
  */
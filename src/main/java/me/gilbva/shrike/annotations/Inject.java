@@ -26,10 +26,19 @@ import java.lang.annotation.Target;
  * dependency, the container will find (any/all) components that provides the
  * service and inject the instance of it in this field. Cannot be use in static
  * fields, but it may be use in parent classes of components.
+ * <p>
+ * Fields declared as an {@link Iterable} of a service receive all the
+ * components that provide the service, but each component is created only
+ * when the iteration reaches it.
+ * <p>
+ * When declared on a constructor the component is created with it, and every
+ * parameter is resolved as if it were an injected field, so the dependencies
+ * may be kept in final fields. A component with a single constructor, like a
+ * record, does not need the annotation.
  *
  * @author Gilberto Vento
  */
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.FIELD)
+@Target({ElementType.FIELD, ElementType.CONSTRUCTOR})
 public @interface Inject {
 }
@@ -25,10 +25,13 @@ import java.lang.annotation.Target;
  * This annotation behaves in the same way as the {@link Inject} annotation
  * except that it will look only for components that has a priority value bigger than
  * the current component.
+ * <p>
+ * It may be declared on a constructor, to resolve all its parameters this
+ * way, or only on some of the parameters of the injected constructor.
  *
  * @author Gilberto Vento
  */
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.FIELD)
+@Target({ElementType.FIELD, ElementType.CONSTRUCTOR, ElementType.PARAMETER})
 public @interface InjectNext {
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Used along with {@link Inject} on a field, or a parameter of an injected
+ * constructor, of type
+ * {@link java.util.concurrent.Executor},
+ * {@link java.util.concurrent.ExecutorService} or
+ * {@link java.util.concurrent.ScheduledExecutorService} to inject the
+ * executor with the given name managed by the application context. All the
+ * fields with the same name share the same executor. Without a name the
+ * {@literal default} executor is injected, or the {@literal scheduler}
+ * executor for scheduled executor fields, the same ones injected in the
+ * fields of those types that are only marked with {@link Inject}.
+ * <p>
+ * The executors are created the first time they are requested, configured
+ * by the {@literal shrike.executor.<name>.type} system property with the
+ * values {@literal platform}, {@literal virtual} or {@literal scheduled}, and
+ * the {@literal shrike.executor.<name>.size} system property with the amount
+ * of threads. They are shut down when the application context is closed.
+ *
+ * @author Gilberto Vento
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+public @interface ManagedExecutor {
+    /**
+     * The name of the executor.
+     *
+     * @return The name of the executor, empty for the default one.
+     */
+    String value() default "";
+}
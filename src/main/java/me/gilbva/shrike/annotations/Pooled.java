@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a component as pooled, the instances of a pooled component are
+ * borrowed from a bounded pool of its context and returned to it after use,
+ * for expensive objects that are not thread safe, like codecs or buffers.
+ * The pool is obtained by injecting a
+ * {@link me.gilbva.shrike.context.ComponentPool} of the component, or with
+ * {@link me.gilbva.shrike.context.IocContext#findPool(Class)}.
+ * <p>
+ * The instances are created on demand, with the same creation and injection
+ * as any other component, up to the size of the pool. Looking up the
+ * component directly gives a new instance that does not belong to the pool.
+ * The idle instances are destroyed when the context is closed.
+ *
+ * @author Gilberto Vento
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Pooled {
+    /**
+     * The max amount of instances of the pool.
+     *
+     * @return The size of the pool, zero or less for the amount of
+     * processors.
+     */
+    int size() default 0;
+}
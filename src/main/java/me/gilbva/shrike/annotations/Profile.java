@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits a component to the deployments where one of the given profiles is
+ * active. The active profiles are given by the {@code shrike.profiles} system
+ * property as a comma separated list, a profile that starts with {@code !} is
+ * active when the profile that follows is not.
+ * <p>
+ * The profiles are recorded in the components index when the component is
+ * compiled, so the components of disabled profiles are never loaded.
+ *
+ * @author Gilberto Vento
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Profile {
+    /**
+     * The profiles of the component.
+     *
+     * @return The names of the profiles.
+     */
+    String[] value();
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.container;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import me.gilbva.shrike.annotations.AssistedFactory;
+import me.gilbva.shrike.context.MembersInjector;
+
+/**
+ * Binds at runtime the {@link AssistedFactory} interfaces that do not have a
+ * generated implementation. The constructors of the created objects, their
+ * injection plans and the default methods of the factory are resolved to
+ * method handles once, when the factory is bound.
+ *
+ * @author Gilberto Vento
+ */
+final class AssistedFactoryBinder implements InvocationHandler {
+    private static final Logger LOG = Logger.getLogger(AssistedFactoryBinder.class.getName());
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final Class<?> factory;
+
+    private final Map<Method, Binding> bindings;
+
+    private AssistedFactoryBinder(Class<?> factory, Map<Method, Binding> bindings) {
+        this.factory = factory;
+        this.bindings = bindings;
+    }
+
+    /**
+     * Determines if the given class is a factory that can be bound at
+     * runtime in a context of the given scope.
+     *
+     * @param cls   The class to check.
+     * @param scope The scope class of the context.
+     * @return true the class is an {@link AssistedFactory} interface of the
+     * scope, false otherwise.
+     */
+    static boolean isFactory(Class<?> cls, Class<?> scope) {
+        if (cls == null || !cls.isInterface()) {
+            return false;
+        }
+        var annot = cls.getAnnotation(AssistedFactory.class);
+        return annot != null && annot.scope().equals(scope);
+    }
+
+    /**
+     * Binds a factory interface to the given context.
+     *
+     * @param context The context to inject the created objects from.
+     * @param factory The factory interface.
+     * @return An implementation of the factory, or null if some method of the
+     * factory cannot be bound.
+     */
+    static Object bind(ContextImpl<?> context, Class<?> factory) {
+        var bindings = new HashMap<Method, Binding>();
+        for (var method : factory.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            var binding = method.isDefault() ? bindDefault(factory, method) : bindMethod(context, method);
+            if (binding == null) {
+                return null;
+            }
+            bindings.put(method, binding);
+        }
+        return Proxy.newProxyInstance(factory.getClassLoader(), new Class<?>[]{factory},
+                new AssistedFactoryBinder(factory, bindings));
+    }
+
+    private static Binding bindMethod(ContextImpl<?> context, Method method) {
+        var product = method.getReturnType();
+        try {
+            var constructor = product.getDeclaredConstructor(method.getParameterTypes());
+            constructor.trySetAccessible();
+            var handle = MethodHandles.lookup().unreflectConstructor(constructor)
+                    .asType(MethodType.methodType(Object.class, method.getParameterTypes()))
+                    .asSpreader(Object[].class, method.getParameterCount());
+            return new Binding(handle, (MembersInjector<Object>) context.membersInjector(product));
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            LOG.log(Level.SEVERE, "Cannot bind " + method + ": " + ex.getMessage(), ex);
+        }
+        return null;
+    }
+
+    /**
+     * Binds a default method of the factory, so the proxy calls the
+     * implementation of the interface.
+     */
+    private static Binding bindDefault(Class<?> factory, Method method) {
+        try {
+            var lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+            var handle = lookup.unreflectSpecial(method, method.getDeclaringClass())
+                    .asType(MethodType.genericMethodType(method.getParameterCount() + 1))
+                    .asSpreader(Object[].class, method.getParameterCount());
+            return new Binding(handle);
+        } catch (IllegalAccessException ex) {
+            LOG.log(Level.SEVERE, "Cannot bind " + method + " of " + factory.getName() + ": " + ex.getMessage(), ex);
+        }
+        return null;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        var binding = bindings.get(method);
+        if (binding != null) {
+            return binding.invoke(proxy, args == null ? NO_ARGS : args);
+        }
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "AssistedFactory: " + factory.getName();
+            default:
+                throw new UnsupportedOperationException(method.toString());
+        }
+    }
+
+    /**
+     * The constructor and the injector of the objects created by a method of
+     * the factory, or the implementation of a default method.
+     */
+    private static final class Binding {
+        private final MethodHandle constructor;
+
+        private final MembersInjector<Object> injector;
+
+        private final MethodHandle defaultMethod;
+
+        private Binding(MethodHandle constructor, MembersInjector<Object> injector) {
+            this.constructor = constructor;
+            this.injector = injector;
+            this.defaultMethod = null;
+        }
+
+        private Binding(MethodHandle defaultMethod) {
+            this.constructor = null;
+            this.injector = null;
+            this.defaultMethod = defaultMethod;
+        }
+
+        private Object invoke(Object proxy, Object[] args) throws Throwable {
+            if (defaultMethod != null) {
+                return (Object) defaultMethod.invokeExact(proxy, args);
+            }
+            Object obj = (Object) constructor.invokeExact(args);
+            injector.injectMembers(obj);
+            return obj;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.container;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import me.gilbva.shrike.annotations.Pooled;
+import me.gilbva.shrike.context.ComponentPool;
+
+/**
+ * The pool of a {@link Pooled} component in a context. The idle instances are
+ * kept in a lock free queue and the size is bounded by a semaphore, so taking
+ * and returning instances only blocks when all the instances are in use. The
+ * instances in use are tracked by identity, so only the instances handed out
+ * by the pool can be returned to it, and only once.
+ *
+ * @param <T> The type of the component.
+ * @author Gilberto Vento
+ */
+final class BoundedPool<T> implements ComponentPool<T> {
+    private final Supplier<T> factory;
+
+    private final ScopeCache cache;
+
+    private final int maxSize;
+
+    private final Queue<T> idle;
+
+    /**
+     * The instances handed out by the pool and not returned yet.
+     */
+    private final Map<Leased, Boolean> leased;
+
+    private final Semaphore permits;
+
+    private final AtomicInteger created;
+
+    private final AtomicInteger inUse;
+
+    private final LongAdder acquireCount;
+
+    private final LongAdder totalWait;
+
+    private final AtomicLong maxWait;
+
+    private volatile boolean closed;
+
+    /**
+     * Constructor for this class.
+     *
+     * @param cls     The class of the component.
+     * @param factory Creates new instances of the component.
+     * @param cache   The cache of the scope, to destroy the instances.
+     */
+    BoundedPool(Class<T> cls, Supplier<T> factory, ScopeCache cache) {
+        this.factory = factory;
+        this.cache = cache;
+        this.maxSize = findSize(cls);
+        this.idle = new ConcurrentLinkedQueue<>();
+        this.leased = new ConcurrentHashMap<>();
+        this.permits = new Semaphore(maxSize);
+        this.created = new AtomicInteger();
+        this.inUse = new AtomicInteger();
+        this.acquireCount = new LongAdder();
+        this.totalWait = new LongAdder();
+        this.maxWait = new AtomicLong();
+    }
+
+    @Override
+    public T acquire() {
+        if (!permits.tryAcquire()) {
+            var start = System.nanoTime();
+            permits.acquireUninterruptibly();
+            recordWait(System.nanoTime() - start);
+        }
+        return take();
+    }
+
+    @Override
+    public T acquire(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!permits.tryAcquire()) {
+            var start = System.nanoTime();
+            var acquired = permits.tryAcquire(timeout, unit);
+            recordWait(System.nanoTime() - start);
+            if (!acquired) {
+                return null;
+            }
+        }
+        return take();
+    }
+
+    @Override
+    public void release(T instance) {
+        if (instance == null) {
+            return;
+        }
+        if (leased.remove(new Leased(instance)) == null) {
+            throw new IllegalArgumentException("The instance was not taken from this pool or it was already released.");
+        }
+        inUse.decrementAndGet();
+        if (closed) {
+            Teardown.destroy(cache, instance);
+        } else {
+            idle.offer(instance);
+            if (closed) {
+                //The pool was closed while returning the instance.
+                destroyIdle();
+            }
+        }
+        permits.release();
+    }
+
+    @Override
+    public Lease<T> borrow() {
+        return new PoolLease(acquire());
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public int getCreated() {
+        return created.get();
+    }
+
+    @Override
+    public int getInUse() {
+        return inUse.get();
+    }
+
+    @Override
+    public long getAcquireCount() {
+        return acquireCount.sum();
+    }
+
+    @Override
+    public long getTotalWaitNanos() {
+        return totalWait.sum();
+    }
+
+    @Override
+    public long getMaxWaitNanos() {
+        return maxWait.get();
+    }
+
+    /**
+     * Closes the pool destroying the idle instances, the instances in use
+     * are destroyed when they are returned.
+     */
+    void close() {
+        closed = true;
+        destroyIdle();
+    }
+
+    private void destroyIdle() {
+        T instance;
+        while ((instance = idle.poll()) != null) {
+            Teardown.destroy(cache, instance);
+        }
+    }
+
+    /**
+     * Takes an idle instance or creates a new one, the caller already holds
+     * a permit.
+     */
+    private T take() {
+        if (closed) {
+            permits.release();
+            throw new IllegalStateException("The context is closed.");
+        }
+        var instance = idle.poll();
+        if (instance == null) {
+            try {
+                instance = factory.get();
+            } catch (RuntimeException ex) {
+                permits.release();
+                throw ex;
+            }
+            if (instance == null) {
+                permits.release();
+                return null;
+            }
+            created.incrementAndGet();
+        }
+        leased.put(new Leased(instance), Boolean.TRUE);
+        inUse.incrementAndGet();
+        acquireCount.increment();
+        return instance;
+    }
+
+    private void recordWait(long nanos) {
+        totalWait.add(nanos);
+        maxWait.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static int findSize(Class<?> cls) {
+        var annot = cls.getAnnotation(Pooled.class);
+        if (annot == null || annot.size() <= 0) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        return annot.size();
+    }
+
+    /**
+     * A key that compares the instances in use by identity.
+     */
+    private static final class Leased {
+        private final Object instance;
+
+        private Leased(Object instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Leased && ((Leased) obj).instance == instance;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(instance);
+        }
+    }
+
+    /**
+     * Returns the instance to the pool when closed.
+     */
+    private final class PoolLease implements Lease<T> {
+        private final T instance;
+
+        private final AtomicBoolean closed;
+
+        private PoolLease(T instance) {
+            this.instance = instance;
+            this.closed = new AtomicBoolean();
+        }
+
+        @Override
+        public T get() {
+            return instance;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                release(instance);
+            }
+        }
+    }
+}
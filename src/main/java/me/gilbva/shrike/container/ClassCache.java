@@ -16,15 +16,19 @@
 
 package me.gilbva.shrike.container;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 
+import me.gilbva.shrike.annotations.AssistedFactory;
 import me.gilbva.shrike.annotations.Inject;
 import me.gilbva.shrike.annotations.InjectNext;
+import me.gilbva.shrike.annotations.ComponentDestroy;
 import me.gilbva.shrike.annotations.ComponentInit;
+import me.gilbva.shrike.context.IocContext;
 
 /**
  * This class is used to store in memory the fields constructors
@@ -38,26 +42,90 @@ class ClassCache {
 
     private final Constructor constructor;
 
+    private final List<InjectionPoint> constructorPoints;
+
     private final List<Method> postConstructs;
 
+    private final List<Method> destroys;
+
+    private final List<InjectionPoint> injectionPoints;
+
+    private final boolean referencesContext;
+
     ClassCache(Class<?> cls) {
         injectFields = createInjectFields(cls);
+        injectionPoints = createInjectionPoints(cls);
         constructor = findConstructor(cls);
-        postConstructs = findPostConstructs(cls);
+        constructorPoints = createConstructorPoints(constructor);
+        postConstructs = findAnnotatedMethods(cls, ComponentInit.class);
+        destroys = findAnnotatedMethods(cls, ComponentDestroy.class);
+        referencesContext = referencesContext(injectionPoints) || referencesContext(constructorPoints);
     }
 
     List<Field> getInjectFields() {
         return injectFields;
     }
 
+    /**
+     * The fields to inject of the class and all its super classes, the ones
+     * of the class first.
+     *
+     * @return The list of injection points.
+     */
+    List<InjectionPoint> getInjectionPoints() {
+        return injectionPoints;
+    }
+
     Constructor getConstructor() {
         return constructor;
     }
 
+    /**
+     * The parameters of the constructor used to create the instances of the
+     * class, empty for no-arg constructors.
+     *
+     * @return The list of injection points of the constructor.
+     */
+    List<InjectionPoint> getConstructorPoints() {
+        return constructorPoints;
+    }
+
     List<Method> getPostConstructs() {
         return postConstructs;
     }
 
+    List<Method> getDestroys() {
+        return destroys;
+    }
+
+    /**
+     * Determines if the instances of the class are injected with an object
+     * that references the context: the context itself, lazy lookups, pools
+     * or assisted factories. Components injected with other components that
+     * reference the context are not detected.
+     *
+     * @return true the instances reference the context directly, false
+     * otherwise.
+     */
+    boolean referencesContext() {
+        return referencesContext;
+    }
+
+    private static boolean referencesContext(List<InjectionPoint> points) {
+        for (var point : points) {
+            var service = point.getService();
+            if (ClassUtils.isLazy(service) || ClassUtils.isPool(service)) {
+                return true;
+            }
+            var cls = ClassUtils.rawClass(service);
+            if (cls != null && (IocContext.class.isAssignableFrom(cls)
+                    || cls.getAnnotation(AssistedFactory.class) != null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private List<Field> createInjectFields(Class<?> cls) {
         var result = new ArrayList<Field>();
         var declaredFields = cls.getDeclaredFields();
@@ -75,21 +143,98 @@ class ClassCache {
         return result;
     }
 
+    private List<InjectionPoint> createInjectionPoints(Class<?> cls) {
+        var result = new ArrayList<InjectionPoint>();
+        var fields = injectFields;
+        var currentClass = cls;
+        while (currentClass != null && currentClass != Object.class) {
+            for (var field : fields) {
+                result.add(new InjectionPoint(field));
+            }
+            currentClass = currentClass.getSuperclass();
+            if (currentClass != null) {
+                fields = createInjectFields(currentClass);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the constructor used to create the instances of the class: the
+     * one annotated with {@link Inject} or {@link InjectNext}, the no-arg
+     * constructor, the only constructor of the class, or the canonical
+     * constructor of a record, in that order.
+     *
+     * @throws IllegalStateException If more than one constructor is
+     *                               annotated.
+     */
     private Constructor findConstructor(Class<?> cls) {
-        for (var cons : cls.getDeclaredConstructors()) {
-            if (cons.getParameterTypes().length == 0) {
-                cons.trySetAccessible();
-                return cons;
+        var constructors = cls.getDeclaredConstructors();
+        Constructor annotated = null;
+        Constructor result = null;
+        for (var cons : constructors) {
+            if (cons.getAnnotation(Inject.class) != null || cons.getAnnotation(InjectNext.class) != null) {
+                if (annotated != null) {
+                    throw new IllegalStateException("The class " + cls.getName()
+                            + " has more than one constructor annotated for injection.");
+                }
+                annotated = cons;
+            } else if (cons.getParameterCount() == 0) {
+                result = cons;
             }
         }
-        return null;
+        if (annotated != null) {
+            result = annotated;
+        }
+        if (result == null && constructors.length == 1) {
+            result = constructors[0];
+        }
+        if (result == null) {
+            result = findCanonicalConstructor(cls);
+        }
+        if (result != null) {
+            result.trySetAccessible();
+        }
+        return result;
+    }
+
+    /**
+     * Records are found by reflection, they are not available in the source
+     * level of the framework.
+     */
+    private Constructor findCanonicalConstructor(Class<?> cls) {
+        try {
+            var components = (Object[]) Class.class.getMethod("getRecordComponents").invoke(cls);
+            if (components == null) {
+                return null;
+            }
+            var types = new Class<?>[components.length];
+            for (int i = 0; i < components.length; i++) {
+                types[i] = (Class<?>) components[i].getClass().getMethod("getType").invoke(components[i]);
+            }
+            return cls.getDeclaredConstructor(types);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    private List<InjectionPoint> createConstructorPoints(Constructor<?> cons) {
+        if (cons == null || cons.getParameterCount() == 0) {
+            return List.of();
+        }
+        var next = cons.getAnnotation(InjectNext.class) != null;
+        var result = new ArrayList<InjectionPoint>();
+        for (var parameter : cons.getParameters()) {
+            result.add(new InjectionPoint(parameter, next));
+        }
+        return result;
     }
 
-    private List<Method> findPostConstructs(Class<?> cls) {
+    private List<Method> findAnnotatedMethods(Class<?> cls, Class<? extends Annotation> annotationCls) {
         var result = new ArrayList<Method>();
         var methods = cls.getDeclaredMethods();
         for (var method : methods) {
-            var annotation = method.getAnnotation(ComponentInit.class);
+            var annotation = method.getAnnotation(annotationCls);
             if (annotation != null) {
                 method.trySetAccessible();
                 result.add(method);
@@ -18,12 +18,12 @@ package me.gilbva.shrike.container;
 
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Objects;
 
 import me.gilbva.shrike.navigation.ClassNavigator;
 import me.gilbva.shrike.navigation.ClassRepository;
@@ -34,41 +34,35 @@ import me.gilbva.shrike.navigation.MethodNavigator;
  * This class represents a set of classes, his purpose is to serve as a
  * container for all the classes that must be handled by an IocContext instance.
  * <p>
+ * The set keeps the entries of the components index, the classes are loaded
+ * only when they are iterated or a lookup selects them.
  *
  * @author Gilberto Vento
  */
 class ClassSet implements Iterable<Class<?>>, ClassRepository {
     /**
-     * The set of classes for this instance.
+     * The entries of this instance by class name.
      */
-    private final Set<Class<?>> clsSet;
+    private final Map<String, ComponentEntry> entries;
 
     /**
-     * The ordered list of classes for this instance
+     * The entries of this instance in priority order.
      */
-    private final List<Class<?>> sortedClasses;
+    private final List<ComponentEntry> sortedEntries;
 
     /**
-     * Default constructor for internal use of this class only.
-     */
-    private ClassSet() {
-        clsSet = new HashSet<>();
-        sortedClasses = new ArrayList<>();
-    }
-
-    /**
-     * Constructor that receive an arbitrary collection of classes.
+     * Constructor that receive the entries of the components.
      *
-     * @param classes The collection of classes to be present in this set of
-     *                classes.
+     * @param entries The entries to be present in this set of classes.
      */
-    ClassSet(Collection<Class<?>> classes) {
-        this();
-        if (classes != null && !classes.isEmpty()) {
-            clsSet.addAll(classes);
-            sortedClasses.addAll(clsSet);
-            ClassUtils.sort(sortedClasses);
+    ClassSet(Collection<ComponentEntry> entries) {
+        this.entries = new HashMap<>();
+        for (var entry : entries) {
+            this.entries.putIfAbsent(entry.getName(), entry);
         }
+        var sorted = new ArrayList<>(this.entries.values());
+        sorted.sort(ComponentEntry.BY_PRIORITY);
+        sortedEntries = List.copyOf(sorted);
     }
 
     /**
@@ -77,35 +71,34 @@ class ClassSet implements Iterable<Class<?>>, ClassRepository {
      * @param classes The array of classes to be present in this set of classes.
      */
     public ClassSet(Class<?>... classes) {
-        this(asList(classes));
+        this(asEntries(classes));
     }
 
     /**
-     * Constructor that receive an array of ClassSets.
+     * Determines whenever a class exist whiting the class set.
      *
-     * @param lsts The array of ClassSets to be present in this set of classes.
+     * @param cls The class to lookup.
+     * @return true the class exists, false otherwise.
      */
-    public ClassSet(ClassSet... lsts) {
-        this();
-        if (lsts != null && lsts.length > 0) {
-            for (var clst : lsts) {
-                if (clst != null && !clst.isEmpty()) {
-                    clsSet.addAll(clst.clsSet);
-                }
-            }
-        }
-        sortedClasses.addAll(clsSet);
-        ClassUtils.sort(sortedClasses);
+    boolean contains(Class cls) {
+        var entry = entries.get(cls.getName());
+        return entry != null && entry.is(cls);
     }
 
     /**
-     * Determines whenever a class exist whiting the class set.
+     * Determines if any class of this set belongs to the given class loader.
      *
-     * @param cls The class to lookup.
-     * @return true the class exists, false otherwise.
+     * @param loader The class loader.
+     * @return true at least one class was defined by the loader or its
+     * descendants.
      */
-    boolean contains(Class cls) {
-        return clsSet.contains(cls);
+    boolean references(ClassLoader loader) {
+        for (var entry : sortedEntries) {
+            if (entry.isLoadedBy(loader)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -114,17 +107,30 @@ class ClassSet implements Iterable<Class<?>>, ClassRepository {
      * @return true this CassSet does not have any classes, false otherwise.
      */
     boolean isEmpty() {
-        return clsSet.isEmpty();
+        return entries.isEmpty();
     }
 
     /**
-     * Gets the class iterator for this class set.
+     * Gets the entries of the components without loading their classes.
+     *
+     * @return The entries in priority order.
+     */
+    List<ComponentEntry> getEntries() {
+        return sortedEntries;
+    }
+
+    /**
+     * Gets the class iterator for this class set, the classes are loaded
+     * while iterating and the ones that cannot be loaded are skipped.
      *
      * @return An iterator of classes.
      */
     @Override
     public Iterator<Class<?>> iterator() {
-        return sortedClasses.iterator();
+        return sortedEntries.stream()
+                .map(ComponentEntry::resolve)
+                .filter(Objects::nonNull)
+                .iterator();
     }
 
     /**
@@ -143,20 +149,23 @@ class ClassSet implements Iterable<Class<?>>, ClassRepository {
      * @return The amount of classes this ClassSet contains.
      */
     public int size() {
-        return clsSet.size();
+        return entries.size();
     }
 
     /**
-     * Utility method to convert from array to Collection of classes.
+     * Utility method to convert from array to entries of classes.
      *
      * @param clss The array of clases to be converted.
-     * @return A collection containing the classes in the passed array.
+     * @return A collection containing the entries of the passed classes.
      */
-    private static Collection<Class<?>> asList(Class<?>... clss) {
-        if (clss == null || clss.length == 0) {
-            return null;
+    private static Collection<ComponentEntry> asEntries(Class<?>... clss) {
+        var result = new ArrayList<ComponentEntry>();
+        if (clss != null) {
+            for (var cls : clss) {
+                result.add(ComponentEntry.of(cls));
+            }
         }
-        return Arrays.asList(clss);
+        return result;
     }
 
     @Override
@@ -23,16 +23,20 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLDecoder;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.jar.JarFile;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import me.gilbva.shrike.annotations.ComponentDestroy;
+
 /**
  * This class stores and organize the clases of the register
  * components.
@@ -42,7 +46,12 @@ import java.util.logging.Logger;
 class ClassSetLoader {
     private static final Logger LOG = Logger.getLogger(ClassSetLoader.class.getName());
 
-    private static ClassSetLoader INSTANCE;
+    /**
+     * The system property with the comma separated list of active profiles.
+     */
+    static final String PROFILES_PROPERTY = "shrike.profiles";
+
+    private static final ClassSetLoader INSTANCE = new ClassSetLoader();
 
     /**
      * All ClassSets available by scope.
@@ -54,10 +63,17 @@ class ClassSetLoader {
      */
     private Map<String, String> propFilesCache;
 
+    /**
+     * The snapshot of the components files, or null if it is not enabled.
+     */
+    private IndexSnapshot snapshot;
+
+    /**
+     * Guards the loading of the scopes.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
     public static ClassSetLoader instance() {
-        if (INSTANCE == null) {
-            INSTANCE = new ClassSetLoader();
-        }
         return INSTANCE;
     }
 
@@ -77,6 +93,36 @@ class ClassSetLoader {
         return loadScope(scope);
     }
 
+    /**
+     * Drops the class sets of the scopes that have classes of the given
+     * class loader, the scope class is part of its own set.
+     *
+     * @param loader The class loader.
+     */
+    void unload(ClassLoader loader) {
+        lock.lock();
+        try {
+            clsCache.values().removeIf(set -> set.references(loader));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops all the class sets and the components files read from the class
+     * path.
+     */
+    void clear() {
+        lock.lock();
+        try {
+            clsCache.clear();
+            propFilesCache = null;
+            snapshot = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Load all classes of the specified scope from the class path.
      *
@@ -86,37 +132,155 @@ class ClassSetLoader {
      * @throws IOException If something when wrong.
      */
     private ClassSet loadFromClassPath(Class<?> scope) throws IOException {
-        var clsList = new HashSet<Class<?>>();
+        var entries = new ArrayList<ComponentEntry>();
         //An instance of IocContextImpl is always a component in every scope.
-        clsList.add(ContextImpl.class);
-        clsList.add(scope);
+        entries.add(ComponentEntry.of(ContextImpl.class));
+        entries.add(ComponentEntry.of(scope));
         if (propFilesCache == null) {
             propFilesCache = loadPropFilesCache();
         }
-        propFilesCache.forEach((clsName, compScope) ->
+        var profiles = activeProfiles();
+        var loader = ClassSetLoader.class.getClassLoader();
+        var derived = new HashMap<String, String>();
+        propFilesCache.forEach((clsName, value) ->
         {
-            if (compScope != null && scope.getName().equalsIgnoreCase(compScope)) {
+            var entry = value.split(";");
+            if (!scope.getName().equalsIgnoreCase(entry[0].trim())) {
+                return;
+            }
+            var attributes = parseAttributes(entry);
+            if (!isEnabled(attributes, profiles, loader)) {
+                return;
+            }
+            //The entries with metadata are loaded when a lookup selects
+            //them, the ones without it are loaded now to find their services.
+            var component = ComponentEntry.parse(clsName, attributes, loader);
+            if (component == null) {
                 try {
-                    clsList.add(Class.forName(clsName));
+                    var cls = Class.forName(clsName, false, loader);
+                    component = ComponentEntry.of(cls);
+                    derived.put(clsName, value + component.toIndex(hasDestroyMethods(cls)));
                 } catch (ClassNotFoundException ex) {
                     LOG.log(Level.SEVERE, null, ex);
+                    return;
                 }
             }
+            entries.add(component);
         });
-        if (clsList.isEmpty()) {
-            return null;
+        //The next starts read the services of those classes from the
+        //snapshot instead of loading them.
+        if (snapshot != null && !derived.isEmpty()) {
+            propFilesCache.putAll(derived);
+            snapshot.write(propFilesCache);
+        }
+        return new ClassSet(entries);
+    }
+
+    private static boolean hasDestroyMethods(Class<?> cls) {
+        for (var current = cls; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (var method : current.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(ComponentDestroy.class)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses the attributes that follow the scope in an entry of the index,
+     * as {@code name=value} pairs.
+     *
+     * @param entry The entry of the component split by {@code ;}.
+     * @return The attributes by name.
+     */
+    private static Map<String, String> parseAttributes(String[] entry) {
+        var result = new HashMap<String, String>();
+        for (int i = 1; i < entry.length; i++) {
+            var attribute = entry[i];
+            var sep = attribute.indexOf('=');
+            if (sep > 0) {
+                result.put(attribute.substring(0, sep).trim(), attribute.substring(sep + 1));
+            }
         }
-        return new ClassSet(clsList);
+        return result;
     }
 
     /**
-     * Loads all of the components.properties files in the class path.
+     * Gets the profiles given by the {@value #PROFILES_PROPERTY} system
+     * property.
+     *
+     * @return The names of the active profiles.
+     */
+    private static Set<String> activeProfiles() {
+        var result = new HashSet<String>();
+        var property = System.getProperty(PROFILES_PROPERTY, "");
+        for (var profile : property.split(",")) {
+            if (!profile.isBlank()) {
+                result.add(profile.trim());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Evaluates the activation conditions recorded in the index for a
+     * component, the optional {@code profiles=a,b} and {@code requires=x.Y}
+     * attributes.
+     *
+     * @param attributes The attributes of the index entry.
+     * @param profiles   The active profiles.
+     * @param loader     The class loader to look for the required classes.
+     * @return true if the component must be loaded, false otherwise.
+     */
+    private static boolean isEnabled(Map<String, String> attributes, Set<String> profiles, ClassLoader loader) {
+        var componentProfiles = attributes.get("profiles");
+        if (componentProfiles != null && !anyProfileActive(componentProfiles.split(","), profiles)) {
+            return false;
+        }
+        var requires = attributes.get("requires");
+        return requires == null || allClassesPresent(requires.split(","), loader);
+    }
+
+    private static boolean anyProfileActive(String[] values, Set<String> profiles) {
+        for (var value : values) {
+            var profile = value.trim();
+            if (profile.startsWith("!") ? !profiles.contains(profile.substring(1)) : profiles.contains(profile)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean allClassesPresent(String[] values, ClassLoader loader) {
+        for (var value : values) {
+            try {
+                Class.forName(value.trim(), false, loader);
+            } catch (ClassNotFoundException | LinkageError ex) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Loads all of the components.properties files in the class path, or
+     * the snapshot of them saved by a previous start if it is enabled. The
+     * snapshot also has the metadata of the entries that had none, once
+     * their classes were loaded.
      *
      * @return A map containing the combination of all the components.properties
      * files present in the class path.
      * @throws IOException If a file cannot be read.
      */
     private Map<String, String> loadPropFilesCache() throws IOException {
+        snapshot = IndexSnapshot.open(getClass().getClassLoader());
+        if (snapshot != null) {
+            var saved = snapshot.read();
+            if (saved != null) {
+                return saved;
+            }
+        }
         var result = new HashMap<String, String>();
         var files = findComponentsFiles();
         for (var file : files) {
@@ -135,10 +299,16 @@ class ClassSetLoader {
                 });
             }
         }
+        if (snapshot != null) {
+            snapshot.write(result);
+        }
         return result;
     }
 
-    private synchronized ClassSet loadScope(Class<?> scope) {
+    private ClassSet loadScope(Class<?> scope) {
+        //A lock instead of synchronized, so virtual threads waiting for the
+        //class path to be read do not pin their carrier threads.
+        lock.lock();
         try {
             if (clsCache.containsKey(scope)) {
                 return clsCache.get(scope);
@@ -150,6 +320,8 @@ class ClassSetLoader {
             }
         } catch (IOException ex) {
             LOG.log(Level.SEVERE, ex.getMessage(), ex);
+        } finally {
+            lock.unlock();
         }
         return null;
     }
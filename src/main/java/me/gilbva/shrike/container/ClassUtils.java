@@ -34,6 +34,9 @@ import java.util.concurrent.PriorityBlockingQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import me.gilbva.shrike.annotations.Component;
+import me.gilbva.shrike.annotations.Pooled;
+import me.gilbva.shrike.context.ComponentPool;
 import me.gilbva.shrike.annotations.Priority;
 
 import java.lang.reflect.InvocationTargetException;
@@ -192,6 +195,24 @@ public class ClassUtils {
         return isArray(service) || isCollection(service) || isMap(service);
     }
 
+    /**
+     * Determines whenever the passed type is an {@link Iterable} of a service,
+     * that must be resolved lazily, creating the components as the iteration
+     * advances.
+     * <pre>
+     * SomeService                       = false
+     * List&lt;SomeService&gt;           = false
+     * Iterable&lt;SomeService&gt;       = true
+     * </pre>
+     *
+     * @param service The type to inspect.
+     * @return true if the especified type is a parameterized Iterable.
+     */
+    static boolean isLazy(Type service) {
+        return service instanceof ParameterizedType
+                && Iterable.class.equals(rawClass(service));
+    }
+
     /**
      * Determines whenever the passed type is an array.
      * <pre>
@@ -326,6 +347,56 @@ public class ClassUtils {
         return v1;
     }
 
+    /**
+     * Determines whenever a component must be instantiated eager, when the
+     * context that handles it is created.
+     *
+     * @param cls The class of the component.
+     * @return true the component is marked with
+     * {@literal @Component(instantiate = true)}, false otherwise.
+     */
+    static boolean isEager(Class<?> cls) {
+        var annot = cls.getAnnotation(Component.class);
+        return annot != null && annot.instantiate() && !annot.prototype()
+                && cls.getAnnotation(Pooled.class) == null;
+    }
+
+    /**
+     * Determines whenever a new instance of a component must be created for
+     * every lookup.
+     *
+     * @param cls The class of the component.
+     * @return true the component is marked with
+     * {@literal @Component(prototype = true)}, false otherwise.
+     */
+    static boolean isPrototype(Class<?> cls) {
+        var annot = cls.getAnnotation(Component.class);
+        return annot != null && annot.prototype();
+    }
+
+    /**
+     * Determines whenever a component is pooled.
+     *
+     * @param cls The class of the component.
+     * @return true the component is marked with {@link Pooled}, false
+     * otherwise.
+     */
+    static boolean isPooled(Class<?> cls) {
+        return cls.getAnnotation(Pooled.class) != null;
+    }
+
+    /**
+     * Determines if the given type is a {@link ComponentPool}.
+     *
+     * @param service The type to check.
+     * @return true the type is a parameterized ComponentPool, false
+     * otherwise.
+     */
+    static boolean isPool(Type service) {
+        return service instanceof ParameterizedType
+                && ((ParameterizedType) service).getRawType().equals(ComponentPool.class);
+    }
+
     /**
      * Given a multiple type, (array, collection, or map) this method will
      * return the appropied instance for it.
@@ -495,6 +566,25 @@ public class ClassUtils {
         return type instanceof TypeVariable || type instanceof WildcardType;
     }
 
+    /**
+     * Determines if a class was defined by the given class loader or by one
+     * of its descendants.
+     *
+     * @param cls    The class to check.
+     * @param loader The class loader.
+     * @return true the class belongs to the loader, false otherwise.
+     */
+    static boolean isLoadedBy(Class<?> cls, ClassLoader loader) {
+        var current = cls.getClassLoader();
+        while (current != null) {
+            if (current == loader) {
+                return true;
+            }
+            current = current.getParent();
+        }
+        return false;
+    }
+
     private static boolean isJavaPackage(String name) {
         return name.startsWith(JAVA_PACKAGE_PREFIX);
     }
@@ -0,0 +1,383 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.container;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A component listed in the index of a scope. The entry keeps what the
+ * annotations processor recorded about the component, its services,
+ * priority and flags, so the service map and the scope template are built
+ * from the index and the class is loaded only when a lookup selects it.
+ * <p>
+ * The entries of loaded classes, like the ones registered at runtime or the
+ * ones listed by an index without metadata, take the same data from the
+ * class.
+ *
+ * @author Gilberto Vento
+ */
+final class ComponentEntry {
+    private static final Logger LOG = Logger.getLogger(ComponentEntry.class.getName());
+
+    /**
+     * Sorts the entries by priority, the lowest value goes first.
+     */
+    static final Comparator<ComponentEntry> BY_PRIORITY = Comparator.comparingInt(ComponentEntry::getPriority);
+
+    private final String name;
+
+    private final ClassLoader loader;
+
+    private final int priority;
+
+    private final List<String> services;
+
+    private final boolean eager;
+
+    private final boolean prototype;
+
+    private final boolean destroyable;
+
+    private final boolean indexed;
+
+    private volatile Class<?> cls;
+
+    private volatile boolean missing;
+
+    private ComponentEntry(String name, ClassLoader loader, int priority, List<String> services,
+                           boolean eager, boolean prototype, boolean destroyable, boolean indexed) {
+        this.name = name;
+        this.loader = loader;
+        this.priority = priority;
+        this.services = services;
+        this.eager = eager;
+        this.prototype = prototype;
+        this.destroyable = destroyable;
+        this.indexed = indexed;
+    }
+
+    /**
+     * Creates the entry of a loaded class.
+     *
+     * @param cls The class of the component.
+     * @return The entry of the component.
+     */
+    static ComponentEntry of(Class<?> cls) {
+        return of(cls, ServiceMap.findServices(cls));
+    }
+
+    /**
+     * Creates the entry of a loaded class with the given services.
+     *
+     * @param cls      The class of the component.
+     * @param services The services provided by the component.
+     * @return The entry of the component.
+     */
+    static ComponentEntry of(Class<?> cls, List<Type> services) {
+        var names = new LinkedHashSet<String>();
+        for (var service : services) {
+            if (service != null) {
+                names.add(service.getTypeName());
+            }
+        }
+        var result = new ComponentEntry(cls.getName(), cls.getClassLoader(), ClassUtils.findPriority(cls),
+                List.copyOf(names), ClassUtils.isEager(cls),
+                ClassUtils.isPrototype(cls) || ClassUtils.isPooled(cls), false, false);
+        result.cls = cls;
+        return result;
+    }
+
+    /**
+     * Creates the entry of a component from the attributes recorded in the
+     * index.
+     *
+     * @param name       The name of the class.
+     * @param attributes The attributes of the index entry.
+     * @param loader     The class loader of the component.
+     * @return The entry, or null if the index has no services for the
+     * component and the class must be loaded to find them.
+     */
+    static ComponentEntry parse(String name, Map<String, String> attributes, ClassLoader loader) {
+        var recorded = attributes.get("services");
+        if (recorded == null) {
+            return null;
+        }
+        var names = new LinkedHashSet<String>();
+        names.add(Object.class.getName());
+        names.add(name);
+        for (var service : recorded.split("\\|")) {
+            if (!service.isBlank()) {
+                names.add(service.trim());
+            }
+        }
+        var priority = Integer.MAX_VALUE;
+        var value = attributes.get("priority");
+        if (value != null) {
+            try {
+                priority = Integer.parseInt(value.trim());
+            } catch (NumberFormatException ex) {
+                LOG.log(Level.WARNING, "Invalid priority {0} for {1}", new Object[]{value, name});
+            }
+        }
+        var flags = new ArrayList<String>();
+        var recordedFlags = attributes.get("flags");
+        if (recordedFlags != null) {
+            for (var flag : recordedFlags.split(",")) {
+                flags.add(flag.trim());
+            }
+        }
+        var prototype = flags.contains("prototype");
+        var pooled = flags.contains("pooled");
+        return new ComponentEntry(name, loader, priority, List.copyOf(names),
+                flags.contains("eager") && !prototype && !pooled, prototype || pooled,
+                flags.contains("destroy"), true);
+    }
+
+    /**
+     * Formats what the entry knows about the component as the metadata
+     * attributes of the index, so the entries of classes loaded to find
+     * their services can be saved and parsed again without loading them.
+     *
+     * @param destroyable If the component has destroy methods.
+     * @return The metadata as {@code ;priority=n;flags=a,b;services=x|y}.
+     */
+    String toIndex(boolean destroyable) {
+        var result = new StringBuilder();
+        result.append(";priority=").append(priority);
+        var flags = new ArrayList<String>();
+        if (eager) {
+            flags.add("eager");
+        }
+        if (prototype) {
+            flags.add("prototype");
+        }
+        if (destroyable) {
+            flags.add("destroy");
+        }
+        if (!flags.isEmpty()) {
+            result.append(";flags=").append(String.join(",", flags));
+        }
+        var recorded = new LinkedHashSet<>(services);
+        recorded.remove(Object.class.getName());
+        recorded.remove(name);
+        result.append(";services=").append(String.join("|", recorded));
+        return result.toString();
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getPriority() {
+        return priority;
+    }
+
+    /**
+     * The names of the services provided by the component, as returned by
+     * {@link Type#getTypeName()}.
+     *
+     * @return The list of service names.
+     */
+    List<String> getServices() {
+        return Collections.unmodifiableList(services);
+    }
+
+    /**
+     * Determines if the component is created when its context is created.
+     *
+     * @return true the component is eager, false otherwise.
+     */
+    boolean isEager() {
+        return eager;
+    }
+
+    /**
+     * Determines if a new instance of the component is created for every
+     * lookup, pooled components are created like prototypes.
+     *
+     * @return true the component is a prototype, false otherwise.
+     */
+    boolean isPrototype() {
+        return prototype;
+    }
+
+    /**
+     * Determines if the processor found destroy methods in the component,
+     * only meaningful for entries that come from the index.
+     *
+     * @return true the component has destroy methods, false otherwise.
+     */
+    boolean isDestroyable() {
+        return destroyable;
+    }
+
+    /**
+     * Determines if the entry was built from the index without loading the
+     * class.
+     *
+     * @return true the entry comes from the index, false otherwise.
+     */
+    boolean isIndexed() {
+        return indexed;
+    }
+
+    /**
+     * Gets the class of the component, loading it without initialization the
+     * first time.
+     *
+     * @return The class, or null if it cannot be loaded.
+     */
+    Class<?> resolve() {
+        var result = cls;
+        if (result != null || missing) {
+            return result;
+        }
+        try {
+            result = Class.forName(name, false, loader);
+            cls = result;
+        } catch (ClassNotFoundException | LinkageError ex) {
+            missing = true;
+            LOG.log(Level.SEVERE, "The component " + name + " cannot be loaded.", ex);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the class of the component if it is already loaded, without
+     * loading it.
+     *
+     * @return The class, or null if it was not loaded yet.
+     */
+    Class<?> loaded() {
+        return cls;
+    }
+
+    /**
+     * Determines if the class loader of the component sees the given type,
+     * this is if all the classes of the type are the ones the loader finds
+     * by their names, so the services recorded by name are only bound to the
+     * types of the same class loaders.
+     *
+     * @param service The type of a service.
+     * @return true the component can provide the type, false otherwise.
+     */
+    boolean sees(Type service) {
+        if (service instanceof Class) {
+            return sees((Class<?>) service);
+        }
+        if (service instanceof ParameterizedType) {
+            var type = (ParameterizedType) service;
+            if (!sees(type.getRawType())) {
+                return false;
+            }
+            for (var arg : type.getActualTypeArguments()) {
+                if (!sees(arg)) {
+                    return false;
+                }
+            }
+            return type.getOwnerType() == null || sees(type.getOwnerType());
+        }
+        if (service instanceof GenericArrayType) {
+            return sees(((GenericArrayType) service).getGenericComponentType());
+        }
+        return true;
+    }
+
+    private boolean sees(Class<?> type) {
+        var current = type;
+        while (current.isArray()) {
+            current = current.getComponentType();
+        }
+        var owner = current.getClassLoader();
+        if (owner == null || owner == loader || current.isPrimitive()) {
+            return true;
+        }
+        try {
+            return Class.forName(current.getName(), false, loader) == current;
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Determines if any class of a type belongs to the given class loader.
+     *
+     * @param type        The type.
+     * @param classLoader The class loader.
+     * @return true the type references the class loader, false otherwise.
+     */
+    static boolean references(Type type, ClassLoader classLoader) {
+        if (type instanceof Class) {
+            return ClassUtils.isLoadedBy((Class<?>) type, classLoader);
+        }
+        if (type instanceof ParameterizedType) {
+            var pType = (ParameterizedType) type;
+            if (references(pType.getRawType(), classLoader)) {
+                return true;
+            }
+            for (var arg : pType.getActualTypeArguments()) {
+                if (references(arg, classLoader)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (type instanceof GenericArrayType) {
+            return references(((GenericArrayType) type).getGenericComponentType(), classLoader);
+        }
+        return false;
+    }
+
+    /**
+     * Determines if the entry is the given class, the entry is resolved only
+     * when the names match.
+     *
+     * @param other The class to compare.
+     * @return true the class is the class of the component, false otherwise.
+     */
+    boolean is(Class<?> other) {
+        return name.equals(other.getName()) && resolve() == other;
+    }
+
+    /**
+     * Determines if the class of the component was loaded and belongs to the
+     * given class loader, entries that were never resolved do not reference
+     * any class.
+     *
+     * @param classLoader The class loader.
+     * @return true the component belongs to the loader, false otherwise.
+     */
+    boolean isLoadedBy(ClassLoader classLoader) {
+        var result = cls;
+        return result != null && ClassUtils.isLoadedBy(result, classLoader);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -16,39 +16,145 @@
 
 package me.gilbva.shrike.container;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * This class is responsable for holding references to the instantiated
  * components in a ioc context.
+ * <p>
+ * The instances are kept in an array of slots, one for each component of the
+ * scope as given by the {@link ScopeTemplate}. Components may be created
+ * concurrently from several threads, a component is created only once,
+ * threads asking for a component that is being created by another thread
+ * will wait for it to be fully initialized, including its asynchronous init
+ * methods.
+ * <p>
+ * Components registered at runtime in the context have a slot of their own,
+ * outside of the array of the scope.
  *
  * @author Gilberto Vento
  */
 class Container {
+    private static final Logger LOG = Logger.getLogger(Container.class.getName());
+
+    /**
+     * The creation each thread is waiting for, used to detect circular
+     * dependencies between threads.
+     */
+    private static final Map<Thread, Creation> WAITING = new ConcurrentHashMap<>();
+
+    /**
+     * Guards the cycle detection between waiting threads.
+     */
+    private static final ReentrantLock WAIT_LOCK = new ReentrantLock();
+
+    /**
+     * The bit of {@link #users} set once the container is released.
+     */
+    private static final int RELEASED = 1 << 30;
+
+    /**
+     * The bit of {@link #users} set once the slots are returned to the pool.
+     */
+    private static final int RECYCLED = 1 << 29;
+
+    /**
+     * The components whose constructors are running on each thread, in the
+     * order they were called.
+     */
+    private static final ThreadLocal<List<Class<?>>> CONSTRUCTING = ThreadLocal.withInitial(ArrayList::new);
+
+    /**
+     * The template of the scope, that gives the index of every component.
+     */
+    private final ScopeTemplate template;
+
+    /**
+     * The instances of the components, or a {@link Creation} for the
+     * components being created right now. They must only be used between
+     * {@link #enter()} and {@link #exit()}, once the container is released
+     * they may belong to another container.
+     */
+    private final AtomicReferenceArray<Object> slots;
+
+    /**
+     * The lookups using the slots plus the {@link #RELEASED} and
+     * {@link #RECYCLED} bits. The slots are returned to the pool when the
+     * container is released and no lookup is using them, so a lookup that
+     * was already running never writes in the slots of another context.
+     * The lookups are only counted when the scope recycles the slots.
+     */
+    private final AtomicInteger users;
+
     /**
-     * A map containing the class of the component and it´s instance for all
-     * instantiated components in the context.
+     * If the slots are returned to the pool of the scope on release.
      */
-    private final Map<Class, Object> components;
+    private final boolean recycling;
 
     /**
      * The guy responsable for instantiate a component.
      */
     private final Instanciator instanciator;
 
+    /**
+     * Collects the components with destroy methods, may be null.
+     */
+    private final Teardown teardown;
+
+    /**
+     * The components registered at runtime in the context, null until the
+     * first one is registered.
+     */
+    private volatile Map<Class<?>, Registration> registered;
+
+    /**
+     * Collects the components with destroy methods that reference the
+     * context, and the ones registered at runtime when the scope has no
+     * teardown. It is owned by the container and not by the cleaning action
+     * of the context, otherwise those components would keep the context
+     * reachable from the cleaner and it would never be cleaned. Null until
+     * it is needed.
+     */
+    private volatile Teardown ownedTeardown;
+
+    /**
+     * Components not created by the time the context was frozen cannot be
+     * created anymore.
+     */
+    private volatile boolean failFast;
+
     /**
      * The constuctor for this container.
      *
      * @param creator   The instance of the object whose responsibility will be to
      *                  create the components.
+     * @param template  The template of the scope of the context.
+     * @param teardown  The teardown of the context, or null if no component
+     *                  of the scope has destroy methods.
      * @param instances The components that are already instantiated.
      */
-    Container(Instanciator creator, Object... instances) {
-        this.components = new ConcurrentHashMap<>();
+    Container(Instanciator creator, ScopeTemplate template, Teardown teardown, Object... instances) {
         this.instanciator = creator;
+        this.template = template;
+        this.teardown = teardown;
+        this.ownedTeardown = teardown != null ? new Teardown(template.getCache()) : null;
+        this.slots = template.acquireSlots();
+        this.users = new AtomicInteger();
+        this.recycling = template.recyclesSlots();
         for (var instance : instances) {
-            components.put(instance.getClass(), instance);
+            var index = template.indexOf(instance.getClass());
+            if (index >= 0) {
+                slots.set(index, instance);
+            }
         }
     }
 
@@ -59,7 +165,7 @@ class Container {
      * @return true the component is already instantiated, false otherwise.
      */
     public boolean contains(Class cls) {
-        return components.containsKey(cls);
+        return get(cls) != null;
     }
 
     /**
@@ -70,12 +176,33 @@ class Container {
      * @return The component´s instance, or null if it does not exists.
      */
     public <T> T get(Class<T> cls) {
-        return (T) components.get(cls);
+        var index = template.indexOf(cls);
+        Object obj;
+        if (index >= 0) {
+            var current = enter();
+            try {
+                obj = current.get(index);
+            } finally {
+                exit();
+            }
+        } else {
+            var registration = findRegistration(cls);
+            if (registration == null) {
+                return null;
+            }
+            checkOpen();
+            obj = registration.slot.get(0);
+        }
+        if (obj instanceof Creation) {
+            return null;
+        }
+        return (T) obj;
     }
 
     /**
      * Creates a component using the internal instantiator, and put it in the
-     * internal map for future use.
+     * internal map for future use. If the component has asynchronous init
+     * methods this method waits for them to complete.
      *
      * @param <T> The type of the component.
      * @param cls The class of the component.
@@ -83,23 +210,477 @@ class Container {
      * created.
      */
     <T> T create(Class<T> cls) {
-        if (components.containsKey(cls)) {
-            return (T) components.get(cls);
-        } else {
+        StartupProfile.record(cls);
+        var index = template.indexOf(cls);
+        if (index < 0) {
+            var registration = findRegistration(cls);
+            if (registration == null) {
+                return null;
+            }
+            checkOpen();
+            if (registration.prototype) {
+                return buildPrototype(cls).join();
+            }
+            return create(cls, registration.slot, 0, registration.destroyable);
+        }
+        if (template.isPrototype(index)) {
+            //Prototypes are not kept, but the context must still be open.
+            checkOpen();
+            return buildPrototype(cls).join();
+        }
+        var current = enter();
+        try {
+            return create(cls, current, index, template.isDestroyable(index));
+        } finally {
+            exit();
+        }
+    }
+
+    private <T> T create(Class<T> cls, AtomicReferenceArray<Object> slots, int index, boolean destroyable) {
+        var obj = slots.get(index);
+        if (obj == null) {
+            checkFrozen(cls);
+            var creation = new Creation(Thread.currentThread());
+            if (slots.compareAndSet(index, null, creation)) {
+                build(cls, slots, index, creation, destroyable);
+                return (T) creation.ready.join();
+            }
+            obj = slots.get(index);
+        }
+        if (obj instanceof Creation) {
+            return (T) await(cls, (Creation) obj);
+        }
+        return (T) obj;
+    }
+
+    /**
+     * Creates a component using the internal instantiator, the returned
+     * future completes when the asynchronous init methods of the component
+     * complete, without blocking the calling thread on them.
+     *
+     * @param <T> The type of the component.
+     * @param cls The class of the component.
+     * @return A future with the new created component, or null if the
+     * component cannot be created.
+     */
+    <T> CompletableFuture<T> createAsync(Class<T> cls) {
+        StartupProfile.record(cls);
+        var index = template.indexOf(cls);
+        if (index < 0) {
+            var registration = findRegistration(cls);
+            if (registration == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            checkOpen();
+            if (registration.prototype) {
+                return buildPrototype(cls);
+            }
+            return createAsync(cls, registration.slot, 0, registration.destroyable);
+        }
+        if (template.isPrototype(index)) {
+            checkOpen();
+            return buildPrototype(cls);
+        }
+        //The creation finishes by replacing its own marker, which is never
+        //found in the slots once they are recycled.
+        var current = enter();
+        try {
+            return createAsync(cls, current, index, template.isDestroyable(index));
+        } finally {
+            exit();
+        }
+    }
+
+    private <T> CompletableFuture<T> createAsync(Class<T> cls, AtomicReferenceArray<Object> slots, int index,
+                                                 boolean destroyable) {
+        var obj = slots.get(index);
+        if (obj == null) {
+            checkFrozen(cls);
+            var creation = new Creation(Thread.currentThread());
+            if (slots.compareAndSet(index, null, creation)) {
+                build(cls, slots, index, creation, destroyable);
+                return (CompletableFuture<T>) creation.ready;
+            }
+            obj = slots.get(index);
+        }
+        if (obj instanceof Creation) {
+            var creation = (Creation) obj;
+            if (creation.owner == Thread.currentThread()) {
+                return CompletableFuture.completedFuture((T) creation.earlyInstance(cls));
+            }
+            return (CompletableFuture<T>) creation.ready;
+        }
+        return CompletableFuture.completedFuture((T) obj);
+    }
+
+    /**
+     * Calls the destroy methods of the components kept by the container and
+     * not by the cleaning action of the context, only the first call has
+     * effect.
+     */
+    void destroyOwned() {
+        var owned = ownedTeardown;
+        if (owned != null) {
+            owned.run();
+        }
+    }
+
+    /**
+     * Releases the slots of this container so they can be recycled by other
+     * contexts of the same scope, the container cannot be used after this.
+     * The slots are recycled once the lookups that are still using them
+     * finish.
+     */
+    void release() {
+        destroyOwned();
+        if ((users.getAndUpdate(u -> u | RELEASED) & RELEASED) == 0) {
+            recycle();
+        }
+    }
+
+    /**
+     * Starts using the slots.
+     *
+     * @return The slots of the container.
+     * @throws IllegalStateException If the container was released.
+     */
+    private AtomicReferenceArray<Object> enter() {
+        var current = tryEnter();
+        if (current == null) {
+            throw new IllegalStateException("The context is closed.");
+        }
+        return current;
+    }
+
+    /**
+     * Starts using the slots, every call that returns the slots must be
+     * followed by a call to {@link #exit()}.
+     *
+     * @return The slots, or null if the container was released.
+     */
+    private AtomicReferenceArray<Object> tryEnter() {
+        if (!recycling) {
+            return (users.get() & RELEASED) == 0 ? slots : null;
+        }
+        if ((users.incrementAndGet() & RELEASED) != 0) {
+            exit();
+            return null;
+        }
+        return slots;
+    }
+
+    /**
+     * Stops using the slots, the last lookup of a released container
+     * recycles them.
+     */
+    private void exit() {
+        if (recycling && users.decrementAndGet() == RELEASED) {
+            recycle();
+        }
+    }
+
+    private void recycle() {
+        if (recycling && users.compareAndSet(RELEASED, RELEASED | RECYCLED)) {
+            template.releaseSlots(slots);
+        }
+    }
+
+    private void checkOpen() {
+        if ((users.get() & RELEASED) != 0) {
+            throw new IllegalStateException("The context is closed.");
+        }
+    }
+
+    /**
+     * Registers a component at runtime, the component must not be a
+     * component of the scope nor be already registered. The registrations of
+     * a context must not run concurrently.
+     *
+     * @param cls The class of the component, it is created on the first
+     *            lookup.
+     * @throws IllegalArgumentException If the component is already
+     *                                  registered.
+     */
+    void register(Class<?> cls) {
+        checkOpen();
+        var prototype = ClassUtils.isPrototype(cls) || ClassUtils.isPooled(cls);
+        var destroyable = !prototype && template.hasDestroyMethods(cls);
+        if (destroyable && ownedTeardown == null) {
+            ownedTeardown = new Teardown(template.getCache());
+        }
+        if (registered == null) {
+            registered = new ConcurrentHashMap<>();
+        }
+        var registration = new Registration(prototype, destroyable);
+        if (template.indexOf(cls) >= 0 || registered.putIfAbsent(cls, registration) != null) {
+            throw new IllegalArgumentException("The class " + cls.getName() + " is already a component of the context.");
+        }
+    }
+
+    /**
+     * Drops the registrations and the instances of the classes of the given
+     * class loader, calling their destroy methods. Nothing is dropped once
+     * the container is released.
+     *
+     * @param loader The class loader.
+     */
+    void unload(ClassLoader loader) {
+        var current = tryEnter();
+        if (current == null) {
+            return;
+        }
+        try {
+            for (int i = 0; i < current.length(); i++) {
+                var obj = current.get(i);
+                if (obj != null && !(obj instanceof Creation) && ClassUtils.isLoadedBy(obj.getClass(), loader)) {
+                    current.compareAndSet(i, obj, null);
+                }
+            }
+        } finally {
+            exit();
+        }
+        var registrations = registered;
+        if (registrations != null) {
+            registrations.keySet().removeIf(cls -> ClassUtils.isLoadedBy(cls, loader));
+        }
+        if (teardown != null) {
+            teardown.unload(loader);
+        }
+        var owned = ownedTeardown;
+        if (owned != null) {
+            owned.unload(loader);
+        }
+    }
+
+    /**
+     * Forbids the creation of the components that are not created yet,
+     * except prototypes.
+     */
+    void failFast() {
+        failFast = true;
+    }
+
+    private void checkFrozen(Class<?> cls) {
+        if (failFast) {
+            throw new IllegalStateException("The context is frozen, the component " + cls.getName()
+                    + " was not created before freezing it.");
+        }
+    }
+
+    /**
+     * Instantiates, injects and initializes the component. The creation is
+     * finished when the asynchronous init methods of the component complete.
+     *
+     * @param cls         The class of the component.
+     * @param slots       The slots of the container.
+     * @param index       The index of the component.
+     * @param creation    The creation of the component.
+     * @param destroyable true the component has destroy methods.
+     */
+    private void build(Class<?> cls, AtomicReferenceArray<Object> slots, int index, Creation creation,
+                       boolean destroyable) {
+        Object obj;
+        CompletableFuture<Void> init;
+        try {
             instanciator.invokePreCreateListener(cls);
-            var obj = instanciator.instantiate(cls);
+            obj = instantiate(cls);
             if (obj == null) {
-                return null;
+                finish(slots, index, creation, null, false);
+                return;
             }
-            components.put(cls, obj);
+            //Early reference for circular dependencies.
+            creation.instance = obj;
 
             instanciator.invokePreInitListener(cls, obj);
             instanciator.injectDependencies(cls, obj);
 
             instanciator.invokePostInitListener(cls, obj);
-            instanciator.callPostConstruct(cls, obj);
+            init = instanciator.callPostConstruct(cls, obj);
+        } catch (RuntimeException ex) {
+            finish(slots, index, creation, null, false);
+            throw ex;
+        }
+        creation.owner = null;
+        init.whenComplete((r, ex) ->
+        {
+            if (ex != null) {
+                LOG.log(Level.SEVERE, ex.getMessage(), ex);
+            }
+            finish(slots, index, creation, obj, destroyable);
+        });
+    }
+
+    /**
+     * Creates a new instance of a prototype component, the instance is not
+     * kept by the container and its dependencies are injected through the
+     * cached injection plan of the class.
+     *
+     * @param cls The class of the component.
+     * @return A future with the new instance, completed when the asynchronous
+     * init methods of the instance complete.
+     */
+    private <T> CompletableFuture<T> buildPrototype(Class<T> cls) {
+        instanciator.invokePreCreateListener(cls);
+        var obj = instantiate(cls);
+        if (obj == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        instanciator.invokePreInitListener(cls, obj);
+        instanciator.injectPlanned(cls, obj);
+        instanciator.invokePostInitListener(cls, obj);
+        return instanciator.callPostConstruct(cls, obj).handle((r, ex) ->
+        {
+            if (ex != null) {
+                LOG.log(Level.SEVERE, ex.getMessage(), ex);
+            }
             return obj;
+        });
+    }
+
+    /**
+     * Calls the constructor of the component, keeping track of the
+     * components whose constructors are running on the current thread to
+     * report the circular dependencies between them.
+     */
+    private <T> T instantiate(Class<T> cls) {
+        var path = CONSTRUCTING.get();
+        path.add(cls);
+        try {
+            return instanciator.instantiate(cls);
+        } finally {
+            path.remove(path.size() - 1);
+            if (path.isEmpty()) {
+                CONSTRUCTING.remove();
+            }
+        }
+    }
+
+    /**
+     * Describes the circular dependency that leads back to a component whose
+     * constructor is running on the current thread.
+     */
+    private static String cyclePath(Class<?> cls) {
+        var path = CONSTRUCTING.get();
+        var start = path.indexOf(cls);
+        var result = new StringBuilder();
+        for (int i = Math.max(start, 0); i < path.size(); i++) {
+            result.append(path.get(i).getName()).append(" -> ");
+        }
+        if (path.isEmpty()) {
+            CONSTRUCTING.remove();
         }
+        return result.append(cls.getName()).toString();
     }
 
+    private void finish(AtomicReferenceArray<Object> slots, int index, Creation creation, Object obj,
+                        boolean destroyable) {
+        slots.compareAndSet(index, creation, obj);
+        if (obj != null && destroyable) {
+            teardownOf(obj.getClass()).add(obj);
+        }
+        creation.ready.complete(obj);
+    }
+
+    private Registration findRegistration(Class<?> cls) {
+        var current = registered;
+        return current != null ? current.get(cls) : null;
+    }
+
+    private Teardown teardownOf(Class<?> cls) {
+        if (teardown != null && !template.getCache().getCache(cls).referencesContext()) {
+            return teardown;
+        }
+        return ownedTeardown;
+    }
+
+    /**
+     * Waits for a component being created by other thread. If waiting would
+     * close a cycle of threads waiting on each other the partially initialized
+     * instance is returned instead, the same way it happens with circular
+     * dependencies on a single thread.
+     *
+     * @param cls      The class of the component.
+     * @param creation The creation to wait for.
+     * @return The instance of the component.
+     */
+    private static Object await(Class<?> cls, Creation creation) {
+        var current = Thread.currentThread();
+        WAIT_LOCK.lock();
+        try {
+            var owner = creation.owner;
+            while (owner != null) {
+                if (owner == current) {
+                    return creation.earlyInstance(cls);
+                }
+                var next = WAITING.get(owner);
+                owner = next != null ? next.owner : null;
+            }
+            WAITING.put(current, creation);
+        } finally {
+            WAIT_LOCK.unlock();
+        }
+        try {
+            return creation.ready.join();
+        } finally {
+            WAITING.remove(current);
+        }
+    }
+
+    /**
+     * The slot of a component registered at runtime.
+     */
+    private static final class Registration {
+        private final AtomicReferenceArray<Object> slot;
+
+        private final boolean prototype;
+
+        private final boolean destroyable;
+
+        private Registration(boolean prototype, boolean destroyable) {
+            this.slot = new AtomicReferenceArray<>(1);
+            this.prototype = prototype;
+            this.destroyable = destroyable;
+        }
+    }
+
+    /**
+     * The state of a component being created.
+     */
+    private static final class Creation {
+        /**
+         * The thread creating the component, null once the component is
+         * waiting only for its asynchronous init methods.
+         */
+        private volatile Thread owner;
+
+        /**
+         * Completed once the component is fully initialized.
+         */
+        private final CompletableFuture<Object> ready;
+
+        /**
+         * The instance of the component before being fully initialized.
+         */
+        private volatile Object instance;
+
+        private Creation(Thread owner) {
+            this.owner = owner;
+            this.ready = new CompletableFuture<>();
+        }
+
+        /**
+         * The instance for a circular dependency, there is none yet when the
+         * cycle goes through the constructor of the component.
+         *
+         * @throws IllegalStateException If the cycle goes through the
+         *                               constructor of the component.
+         */
+        private Object earlyInstance(Class<?> cls) {
+            var obj = instance;
+            if (obj == null) {
+                throw new IllegalStateException("Circular dependency through the constructors: " + cyclePath(cls));
+            }
+            return obj;
+        }
+    }
 }
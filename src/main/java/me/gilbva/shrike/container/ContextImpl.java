@@ -18,16 +18,33 @@ package me.gilbva.shrike.container;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.lang.ref.Cleaner;
 import java.lang.reflect.Array;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import me.gilbva.shrike.context.ComponentPool;
 import me.gilbva.shrike.context.IocContext;
+import me.gilbva.shrike.context.MembersInjector;
 import me.gilbva.shrike.scope.Application;
 import me.gilbva.shrike.navigation.ClassRepository;
 import me.gilbva.shrike.scope.Scope;
+import me.gilbva.shrike.scope.ThreadScope;
 
 /**
  * The main container of the IoC framework, an instance of this class is created to
@@ -39,37 +56,311 @@ import me.gilbva.shrike.scope.Scope;
 final class ContextImpl<S extends Scope> implements IocContext<S> {
     private static final Logger LOG = Logger.getLogger(ContextImpl.class.getName());
 
+    static final Cleaner CLEANER = Cleaner.create();
+
     private final S scope;
 
+    private final ScopeTemplate template;
+
     private final ClassSet classSet;
 
-    private final ServiceMap serviceMap;
+    /**
+     * The services of the context, replaced with a new map every time a
+     * component is registered at runtime.
+     */
+    private volatile ServiceMap serviceMap;
 
     private final Container container;
 
+    private final Instanciator instanciator;
+
     private final IocContext<?> parent;
 
     private final ScopeCache cache;
 
+    private final CompletableFuture<IocContext<S>> initialized;
+
+    /**
+     * Calls the destroy methods of the components when the context is closed,
+     * or when it becomes unreachable without being closed. Null if no
+     * component of the scope has destroy methods.
+     */
+    private final Cleaner.Cleanable cleanable;
+
+    /**
+     * The thread scoped contexts, only for the root context, created the
+     * first time a thread scoped component is looked up.
+     */
+    private volatile ThreadContexts threads;
+
+    /**
+     * The executors managed by the context, only for the root context,
+     * created the first time an executor is requested.
+     */
+    private volatile ManagedExecutors executors;
+
+    /**
+     * Set when the context is closed, guarded by the lock.
+     */
+    private boolean closed;
+
+    /**
+     * The resolution tables of the context once it is frozen, null before.
+     */
+    private volatile FrozenIndex frozen;
+
+    /**
+     * Serializes the registrations and the freezing of the context.
+     */
+    private final ReentrantLock lock;
+
+    /**
+     * The objects that shadow the lookups of some services, null if the
+     * context has no overrides.
+     */
+    private final Map<Type, Object> overrides;
+
+    /**
+     * The instances registered at runtime by their service, null until the
+     * first one is registered, guarded by the lock for writing.
+     */
+    private volatile Map<Type, Object> instances;
+
     ContextImpl(S scope) throws IOException {
-        this(scope, null);
+        this(scope, null, null);
+        StartupProfile.start(this);
     }
 
     @SuppressWarnings("LeakingThisInConstructor")
-    private ContextImpl(S scope, IocContext<?> parent) throws IOException {
+    private ContextImpl(S scope, IocContext<?> parent, Map<Type, Object> overrides) throws IOException {
         this.scope = scope;
-        this.cache = GlobalCache.instance().getScope(getScopeClass());
         this.parent = parent;
-        classSet = ClassSet.findByScope(getScopeClass());
-        serviceMap = ServiceMap.findByScope(getScopeClass());
-        var creator = new Instanciator(this, serviceMap);
-        container = new Container(creator, scope, this);
-        //Inject dependencies on the scope component.
-        creator.injectDependencies(scope.getClass(), scope);
+        this.overrides = overrides;
+        template = ScopeTemplate.findByScope(getScopeClass());
+        cache = template.getCache();
+        classSet = template.getClassSet();
+        serviceMap = template.getServiceMap();
+        lock = new ReentrantLock();
+        var creator = new Instanciator(this, template);
+        instanciator = creator;
+        Teardown teardown = null;
+        if (template.hasDestroyable()) {
+            teardown = new Teardown(cache);
+            cleanable = CLEANER.register(this, teardown);
+        } else {
+            cleanable = null;
+        }
+        container = new Container(creator, template, teardown, scope, this);
+        if (template.isInjectScope() && !sharesScope()) {
+            //Inject dependencies on the scope component.
+            creator.injectDependencies(scope.getClass(), scope);
+        }
+        initialized = instantiateEagerComponents();
+    }
+
+    /**
+     * Starts the creation of the components marked with
+     * {@literal @Component(instantiate = true)} in the background, components
+     * that do not depend on each other are created in parallel.
+     *
+     * @return A future that completes when all the eager components are
+     * created and initialized, or null if there are no eager components.
+     */
+    private CompletableFuture<IocContext<S>> instantiateEagerComponents() {
+        var eagerComponents = template.getEagerComponents();
+        if (eagerComponents.isEmpty()) {
+            return null;
+        }
+        return scheduler().schedule(eagerComponents, ForkJoinPool.commonPool())
+                .thenApply(v -> this);
+    }
+
+    @Override
+    public CompletableFuture<IocContext<S>> whenInitialized() {
+        if (initialized == null) {
+            return CompletableFuture.completedFuture(this);
+        }
+        return initialized;
+    }
+
+    private StartupScheduler scheduler() {
+        return new StartupScheduler(this, serviceMap, container);
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(Executor executor, Type... services) {
+        var components = new LinkedHashSet<Class<?>>();
+        var missing = new ArrayList<Type>();
+        for (var service : services) {
+            if (ClassUtils.isMultiple(service)) {
+                var all = serviceMap.findAll(ClassUtils.multipleType(service));
+                if (all != null && !all.isEmpty()) {
+                    components.addAll(all);
+                    continue;
+                }
+            } else if (ClassUtils.rawClass(service) != null) {
+                var component = serviceMap.findOne(service);
+                if (component != null) {
+                    components.add(component);
+                    continue;
+                }
+            }
+            missing.add(service);
+        }
+        var result = scheduler().schedule(components, executor);
+        if (parent != null && !missing.isEmpty()) {
+            var parentResult = parent.warmUp(executor, missing.toArray(new Type[0]));
+            return CompletableFuture.allOf(result, parentResult);
+        }
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUpAll(Executor executor) {
+        var components = new ArrayList<Class<?>>();
+        if (classSet != null) {
+            for (var cls : classSet) {
+                if (!ClassUtils.isPrototype(cls) && !ClassUtils.isPooled(cls)) {
+                    components.add(cls);
+                }
+            }
+        }
+        if (serviceMap != null) {
+            for (var cls : serviceMap.getRegisteredComponents()) {
+                if (!ClassUtils.isPrototype(cls) && !ClassUtils.isPooled(cls)) {
+                    components.add(cls);
+                }
+            }
+        }
+        return scheduler().schedule(components, executor);
+    }
+
+    @Override
+    public void freeze() {
+        freeze(false);
+    }
+
+    @Override
+    public void freeze(boolean failFast) {
+        lock.lock();
+        try {
+            if (frozen != null) {
+                return;
+            }
+            whenInitialized().join();
+            if (failFast) {
+                //The components not created by now cannot be created later.
+                warmUpAll(Runnable::run).join();
+                container.failFast();
+            }
+            frozen = new FrozenIndex(serviceMap);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return frozen != null;
+    }
+
+    @Override
+    public void registerComponent(Class<?> cls) {
+        if (cls == null || cls.isInterface() || Modifier.isAbstract(cls.getModifiers())) {
+            throw new IllegalArgumentException("cls");
+        }
+        lock.lock();
+        try {
+            checkNotFrozen();
+            var current = serviceMap != null ? serviceMap : new ServiceMap(null);
+            if (current.contains(cls)) {
+                throw new IllegalArgumentException("The class " + cls.getName() + " is already a component of the context.");
+            }
+            container.register(cls);
+            serviceMap = current.withComponent(cls, ServiceMap.findServices(cls));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void registerInstance(Type service, Object instance) {
+        if (instance == null) {
+            throw new IllegalArgumentException("instance");
+        }
+        var cls = ClassUtils.rawClass(service);
+        if (cls == null || !cls.isInstance(instance)) {
+            throw new IllegalArgumentException("service");
+        }
+        lock.lock();
+        try {
+            checkNotFrozen();
+            var current = instances;
+            if (current == null) {
+                current = new ConcurrentHashMap<>();
+            } else if (current.containsKey(service)) {
+                throw new IllegalArgumentException("An instance of " + service.getTypeName() + " is already registered in the context.");
+            }
+            current.put(service, instance);
+            instances = current;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkNotFrozen() {
+        if (frozen != null) {
+            throw new IllegalStateException("The context is frozen.");
+        }
+    }
+
+    @Override
+    public IocContext<S> withOverrides(Map<Type, Object> overrides) {
+        if (overrides == null) {
+            throw new IllegalArgumentException("overrides");
+        }
+        for (var entry : overrides.entrySet()) {
+            var cls = ClassUtils.rawClass(entry.getKey());
+            if (cls == null || !cls.isInstance(entry.getValue())) {
+                throw new IllegalArgumentException("The override of " + entry.getKey().getTypeName()
+                        + " is not an instance of the service.");
+            }
+        }
+        try {
+            return new ContextImpl<>(scope, parent, Map.copyOf(overrides));
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Determines if the scope object belongs to other context, like in the
+     * contexts with overrides. That context already injected the scope and
+     * receives its listener callbacks.
+     *
+     * @return true the scope is shared, false otherwise.
+     */
+    boolean sharesScope() {
+        return overrides != null;
+    }
+
+    private Object findOverride(Type service) {
+        var result = overrides != null ? overrides.get(service) : null;
+        if (result == null) {
+            var registered = instances;
+            if (registered != null) {
+                result = registered.get(service);
+            }
+        }
+        return result;
     }
 
     @Override
     public <T> T find(Class<T> service) {
+        var override = findOverride(service);
+        if (override != null) {
+            return (T) override;
+        }
         var result = findInternal(service);
         if (result != null) {
             return result;
@@ -77,7 +368,7 @@ final class ContextImpl<S extends Scope> implements IocContext<S> {
         if (parent != null) {
             return parent.find(service);
         }
-        return null;
+        return (T) findRootService(service);
     }
 
     @Override
@@ -87,6 +378,17 @@ final class ContextImpl<S extends Scope> implements IocContext<S> {
 
     @Override
     public Object findGeneric(Type service) {
+        if (ClassUtils.isLazy(service)) {
+            return new LazyComponents<>(this, ClassUtils.collectionType(service));
+        }
+        if (ClassUtils.isPool(service)) {
+            var cls = ClassUtils.rawClass(ClassUtils.parameterType(service, 0));
+            return cls != null ? findPool(cls) : null;
+        }
+        var override = findOverride(service);
+        if (override != null) {
+            return override;
+        }
         var result = findGenericInternal(service);
         if (result != null) {
             return result;
@@ -94,7 +396,7 @@ final class ContextImpl<S extends Scope> implements IocContext<S> {
         if (parent != null) {
             return parent.findGeneric(service);
         }
-        return null;
+        return findRootService(service);
     }
 
     @Override
@@ -106,9 +408,52 @@ final class ContextImpl<S extends Scope> implements IocContext<S> {
         if (parent != null) {
             return parent.findNextGeneric(service, priority);
         }
+        if (ThreadContexts.provides(service)) {
+            return threads().current().findNextGeneric(service, priority);
+        }
         return null;
     }
 
+    @Override
+    public <T> CompletableFuture<T> findAsync(Class<T> service) {
+        return findAsync(service, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public <T> CompletableFuture<T> findAsync(Class<T> service, Executor executor) {
+        return (CompletableFuture<T>) findGenericAsync(service, executor);
+    }
+
+    @Override
+    public CompletableFuture<Object> findGenericAsync(Type service) {
+        return findGenericAsync(service, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public CompletableFuture<Object> findGenericAsync(Type service, Executor executor) {
+        if (ClassUtils.isMultiple(service) || ClassUtils.rawClass(service) == null) {
+            return CompletableFuture.supplyAsync(() -> findGeneric(service), executor);
+        }
+        var override = findOverride(service);
+        if (override != null) {
+            return CompletableFuture.completedFuture(override);
+        }
+        var component = findComponent(service, null);
+        if (component == null) {
+            if (parent != null) {
+                return parent.findGenericAsync(service, executor);
+            }
+            //Thread scoped components belong to the calling thread.
+            return CompletableFuture.completedFuture(findRootService(service));
+        }
+        var instance = container.get(component);
+        if (instance != null) {
+            return CompletableFuture.completedFuture(instance);
+        }
+        return CompletableFuture.supplyAsync(() -> container.createAsync(component), executor)
+                .thenCompose(f -> (CompletableFuture<Object>) f);
+    }
+
     @Override
     public <T> T[] findAll(Class<T> service) {
         var result = findAllInternal(service);
@@ -121,9 +466,32 @@ final class ContextImpl<S extends Scope> implements IocContext<S> {
         return result;
     }
 
+    @Override
+    public <T> Stream<T> stream(Class<T> service) {
+        return (Stream<T>) streamGeneric(service);
+    }
+
+    @Override
+    public Stream<Object> streamGeneric(Type service) {
+        return StreamSupport.stream(new LazyComponents<>(this, service).spliterator(), false);
+    }
+
+    @Override
+    public <T> MembersInjector<T> membersInjector(Class<T> cls) {
+        return (MembersInjector<T>) instanciator.findPlan(cls);
+    }
+
+    @Override
+    public void injectMembers(Object instance) {
+        if (instance == null) {
+            throw new IllegalArgumentException("instance");
+        }
+        instanciator.injectPlanned(instance.getClass(), instance);
+    }
+
     @Override
     public boolean existsComponent(Class cls) {
-        if (classSet.contains(cls)) {
+        if (isComponent(cls)) {
             return true;
         }
         if (parent != null) {
@@ -134,6 +502,9 @@ final class ContextImpl<S extends Scope> implements IocContext<S> {
 
     @Override
     public boolean exists(Type service) {
+        if (findOverride(service) != null) {
+            return true;
+        }
         if (ClassUtils.isMultiple(service)) {
             var type = ClassUtils.multipleType(service);
             if (serviceMap.exists(type)) {
@@ -147,7 +518,7 @@ final class ContextImpl<S extends Scope> implements IocContext<S> {
         if (parent != null) {
             return parent.exists(service);
         }
-        return false;
+        return ThreadContexts.provides(service) || ManagedExecutors.provides(service);
     }
 
     @Override
@@ -161,36 +532,108 @@ final class ContextImpl<S extends Scope> implements IocContext<S> {
             throw new IllegalArgumentException("scope");
         }
         try {
-            return new ContextImpl(scope, this);
+            return new ContextImpl<>(scope, this, null);
         } catch (IOException ex) {
             LOG.log(Level.SEVERE, ex.getMessage(), ex);
         }
         return null;
     }
 
+    /**
+     * Finds the services that only the root context provides besides its
+     * components, the thread scoped components of the current thread and the
+     * default managed executors.
+     *
+     * @param service The service to lookup.
+     * @return The instance, or null if this is not a root context or it does
+     * not provide the service.
+     */
+    private Object findRootService(Type service) {
+        if (parent != null) {
+            return null;
+        }
+        if (ThreadContexts.provides(service)) {
+            return threads().current().findGeneric(service);
+        }
+        if (ManagedExecutors.provides(service)) {
+            return executors().get(null, service == ScheduledExecutorService.class);
+        }
+        return null;
+    }
+
+    private ThreadContexts threads() {
+        var result = threads;
+        if (result == null) {
+            lock.lock();
+            try {
+                checkOpen();
+                result = threads;
+                if (result == null) {
+                    result = new ThreadContexts(this);
+                    threads = result;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return result;
+    }
+
+    private ManagedExecutors executors() {
+        var result = executors;
+        if (result == null) {
+            lock.lock();
+            try {
+                checkOpen();
+                result = executors;
+                if (result == null) {
+                    result = new ManagedExecutors();
+                    executors = result;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return result;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The context is closed.");
+        }
+    }
+
+    /**
+     * Creates the thread scoped context of the current thread.
+     *
+     * @param scope The scope of the thread.
+     * @return The new context, child of this context.
+     */
+    ContextImpl<ThreadScope> createThreadContext(ThreadScope scope) {
+        try {
+            return new ContextImpl<>(scope, this, null);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+    }
+
     private <T> T findInternal(Class<T> service) {
         if (service.isArray()) {
             return (T) findGenericInternal(service);
         } else {
-            var component = serviceMap.findOne(service);
+            var component = findComponent(service, null);
             if (component != null) {
                 return (T) container.create(component);
             }
+            if (AssistedFactoryBinder.isFactory(service, getScopeClass())) {
+                return (T) instanciator.findFactory(service);
+            }
         }
         return null;
     }
 
     private <T> T[] findAllInternal(Class<T> service) {
-        var components = serviceMap.findAll(service);
-        if (components != null) {
-            var resultList = components.stream()
-                    .map(c -> (T) container.create(c))
-                    .filter(i -> i != null)
-                    .collect(Collectors.toList());
-            var result = (T[]) Array.newInstance(service, components.size());
-            return (T[]) resultList.toArray(result);
-        }
-        return (T[]) Array.newInstance(service, 0);
+        return (T[]) findAllGenericInternal(service);
     }
 
     private Object findGenericInternal(Type service) {
@@ -208,10 +651,14 @@ final class ContextImpl<S extends Scope> implements IocContext<S> {
     }
 
     private Object findOneGenericInternal(Type service, Integer priority) {
-        var component = serviceMap.findOne(service, priority);
+        var component = findComponent(service, priority);
         if (component != null) {
             return container.create(component);
         }
+        var cls = ClassUtils.rawClass(service);
+        if (priority == null && cls == service && AssistedFactoryBinder.isFactory(cls, getScopeClass())) {
+            return instanciator.findFactory(cls);
+        }
         return null;
     }
 
@@ -223,19 +670,114 @@ final class ContextImpl<S extends Scope> implements IocContext<S> {
         if (resultClass == null) {
             return null;
         }
-        Object[] result;
-        var components = serviceMap.findAll(service);
+        var resultList = new ArrayList<Object>();
+        var registered = instances;
+        if (registered != null && registered.containsKey(service)) {
+            resultList.add(registered.get(service));
+        }
+        var index = frozen;
+        var components = index != null ? index.findAll(service) : serviceMap.findAll(service);
         if (components != null) {
-            var resultList = components.stream()
-                    .map(c -> (Object) container.create(c))
-                    .filter(i -> i != null)
-                    .collect(Collectors.toList());
-            result = (Object[]) Array.newInstance(resultClass, resultList.size());
-            result = resultList.toArray(result);
+            for (var component : components) {
+                var instance = container.create(component);
+                if (instance != null) {
+                    resultList.add(instance);
+                }
+            }
+        }
+        var result = (Object[]) Array.newInstance(resultClass, resultList.size());
+        return resultList.toArray(result);
+    }
+
+    @Override
+    public <T> ComponentPool<T> findPool(Class<T> cls) {
+        if (isComponent(cls) && ClassUtils.isPooled(cls)) {
+            return instanciator.findPool(cls);
+        }
+        if (parent != null) {
+            return parent.findPool(cls);
+        }
+        return null;
+    }
+
+    @Override
+    public ExecutorService executor(String name) {
+        if (parent != null) {
+            return parent.executor(name);
+        }
+        return executors().get(name, false);
+    }
+
+    @Override
+    public ScheduledExecutorService scheduler(String name) {
+        if (parent != null) {
+            return parent.scheduler(name);
+        }
+        return (ScheduledExecutorService) executors().get(name, true);
+    }
+
+    @Override
+    public void unload(ClassLoader loader) {
+        if (loader == null) {
+            throw new IllegalArgumentException("loader");
+        }
+        lock.lock();
+        try {
+            var current = serviceMap;
+            if (current != null) {
+                serviceMap = current.without(loader);
+            }
+            var registered = instances;
+            if (registered != null) {
+                registered.entrySet().removeIf(e -> ComponentEntry.references(e.getKey(), loader)
+                        || ClassUtils.isLoadedBy(e.getValue().getClass(), loader));
+            }
+            container.unload(loader);
+            if (frozen != null) {
+                frozen = new FrozenIndex(serviceMap);
+            }
+        } finally {
+            lock.unlock();
+        }
+        instanciator.unload(loader);
+    }
+
+    @Override
+    public void releaseThread() {
+        if (parent != null) {
+            parent.releaseThread();
         } else {
-            result = (Object[]) Array.newInstance(resultClass, 0);
+            var current = threads;
+            if (current != null) {
+                current.release();
+            }
         }
-        return result;
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+        var threads = this.threads;
+        if (threads != null) {
+            threads.close();
+        }
+        //The components that reference the context were initialized after
+        //the ones they use, so they are destroyed first.
+        container.destroyOwned();
+        if (cleanable != null) {
+            cleanable.clean();
+        }
+        instanciator.closePools();
+        var executors = this.executors;
+        if (executors != null) {
+            executors.shutdown();
+        }
+        container.release();
     }
 
     @Override
@@ -265,6 +807,70 @@ final class ContextImpl<S extends Scope> implements IocContext<S> {
         return "IocContext: " + scope;
     }
 
+    /**
+     * Determines if a class is a component of the scope of this context or
+     * a component registered at runtime in it.
+     */
+    private boolean isComponent(Class<?> cls) {
+        if (classSet.contains(cls)) {
+            return true;
+        }
+        var services = serviceMap;
+        return services != null && services.contains(cls);
+    }
+
+    /**
+     * Finds the components of this context that provide the given service,
+     * without creating them or loading their classes.
+     *
+     * @param service The service to lookup.
+     * @return The entries of the components in priority order, or null if
+     * none.
+     */
+    List<ComponentEntry> findComponents(Type service) {
+        var index = frozen;
+        return index != null ? index.findEntries(service) : serviceMap.findEntries(service);
+    }
+
+    /**
+     * Finds the component selected by a lookup of a service, through the
+     * resolution tables once the context is frozen.
+     *
+     * @param service  The type of the service.
+     * @param priority The priority of the component that looks for the next
+     *                 one, or null.
+     * @return The component class or null if none provides the service.
+     */
+    private Class<?> findComponent(Type service, Integer priority) {
+        var index = frozen;
+        return index != null ? index.findOne(service, priority) : serviceMap.findOne(service, priority);
+    }
+
+    /**
+     * Creates a component of this context or gets it if it already exists.
+     *
+     * @param cls The class of the component.
+     * @return The instance of the component.
+     */
+    Object createComponent(Class<?> cls) {
+        return container.create(cls);
+    }
+
+    /**
+     * Determines if an instance is a singleton kept by this context or by its
+     * parents, so it is the same for every thread that uses the context.
+     *
+     * @param instance The instance to check.
+     * @return true the instance is in the slots of the contexts, false
+     * otherwise.
+     */
+    boolean holds(Object instance) {
+        if (container.get(instance.getClass()) == instance) {
+            return true;
+        }
+        return parent instanceof ContextImpl && ((ContextImpl<?>) parent).holds(instance);
+    }
+
     ClassCache findCache(Class<?> cls) {
         return cache.getCache(cls);
     }
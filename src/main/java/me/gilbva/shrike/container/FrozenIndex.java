@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.container;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The resolution tables of a frozen context. The wiring of a frozen context
+ * never changes, so the component that a lookup of a service selects, and
+ * the components of a service in priority order, are resolved through the
+ * service map only once and kept in these tables, the next lookups are plain
+ * reads of a table and of the container. The services of the components
+ * whose classes are already loaded are resolved when the context is frozen,
+ * the rest on their first lookup, no component is created to build the
+ * tables.
+ *
+ * @author Gilberto Vento
+ */
+final class FrozenIndex {
+    /**
+     * The value of the services that no component provides, the tables
+     * cannot hold nulls.
+     */
+    private static final Object NONE = new Object();
+
+    private final ServiceMap serviceMap;
+
+    /**
+     * The component selected by a lookup of every service, or
+     * {@link #NONE}.
+     */
+    private final Map<Type, Object> components;
+
+    /**
+     * The components selected by the lookups of the next component, by
+     * priority and service.
+     */
+    private final Map<Integer, Map<Type, Object>> next;
+
+    /**
+     * All the components of every service, or {@link #NONE}.
+     */
+    private final Map<Type, Object> all;
+
+    /**
+     * The entries of all the components of every service, or {@link #NONE}.
+     */
+    private final Map<Type, Object> entries;
+
+    /**
+     * Constructor for this class.
+     *
+     * @param serviceMap The services of the context.
+     */
+    FrozenIndex(ServiceMap serviceMap) {
+        this.serviceMap = serviceMap;
+        this.components = new ConcurrentHashMap<>();
+        this.next = new ConcurrentHashMap<>();
+        this.all = new ConcurrentHashMap<>();
+        this.entries = new ConcurrentHashMap<>();
+        if (serviceMap != null) {
+            for (var cls : serviceMap.getLoadedComponents()) {
+                for (var service : serviceMap.getServices(cls)) {
+                    if (service != null) {
+                        findOne(service);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the component selected by a lookup of a service, in the same way
+     * as {@link ServiceMap#findOne(Type, Integer)}.
+     *
+     * @param service  The type of the service.
+     * @param priority The priority of the component that looks for the next
+     *                 one, or null.
+     * @return The component class or null if none provides the service.
+     */
+    Class<?> findOne(Type service, Integer priority) {
+        if (priority == null) {
+            return findOne(service);
+        }
+        var table = next.computeIfAbsent(priority, p -> new ConcurrentHashMap<>());
+        return (Class<?>) value(table.computeIfAbsent(service, s -> orNone(serviceMap.findOne(s, priority))));
+    }
+
+    /**
+     * Finds the component selected by a lookup of a service.
+     *
+     * @param service The type of the service.
+     * @return The component class or null if none provides the service.
+     */
+    Class<?> findOne(Type service) {
+        var result = components.get(service);
+        if (result == null) {
+            result = components.computeIfAbsent(service, s -> orNone(serviceMap.findOne(s)));
+        }
+        return (Class<?>) value(result);
+    }
+
+    /**
+     * Finds all the components of a service, in the same way as
+     * {@link ServiceMap#findAll(Type)}.
+     *
+     * @param service The type of the service.
+     * @return The list of components, or null if none.
+     */
+    @SuppressWarnings("unchecked")
+    List<Class<?>> findAll(Type service) {
+        return (List<Class<?>>) value(all.computeIfAbsent(service, s -> orNone(copy(serviceMap.findAll(s)))));
+    }
+
+    /**
+     * Finds the entries of all the components of a service without loading
+     * their classes, in the same way as {@link ServiceMap#findEntries(Type)}.
+     *
+     * @param service The type of the service.
+     * @return The entries in priority order, or null if none.
+     */
+    @SuppressWarnings("unchecked")
+    List<ComponentEntry> findEntries(Type service) {
+        return (List<ComponentEntry>) value(entries.computeIfAbsent(service,
+                s -> orNone(copy(serviceMap.findEntries(s)))));
+    }
+
+    private static <T> List<T> copy(List<T> list) {
+        return list != null ? List.copyOf(list) : null;
+    }
+
+    private static Object orNone(Object value) {
+        return value != null ? value : NONE;
+    }
+
+    private static Object value(Object value) {
+        return value != NONE ? value : null;
+    }
+}
@@ -22,18 +22,18 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * This singleton class holds the data of the components of all the
  * scopes.
+ * <p>
+ * It is also the entry point to drop the metadata cached for the classes of
+ * a class loader, so the loader can be collected after it is discarded.
  *
  * @author Gilberto Vento
  */
 class GlobalCache {
-    private static GlobalCache INSTANCE;
+    private static final GlobalCache INSTANCE = new GlobalCache();
 
     private final Map<Class<?>, ScopeCache> scopeMap;
 
     public static GlobalCache instance() {
-        if (INSTANCE == null) {
-            INSTANCE = new GlobalCache();
-        }
         return INSTANCE;
     }
 
@@ -42,12 +42,33 @@ class GlobalCache {
     }
 
     ScopeCache getScope(Class<?> scope) {
-        var cache = scopeMap.get(scope);
-        if (cache == null) {
-            cache = new ScopeCache();
-            scopeMap.put(scope, cache);
-        }
-        return cache;
+        return scopeMap.computeIfAbsent(scope, k -> new ScopeCache());
+    }
+
+    /**
+     * Drops the scopes of the given class loader, or whose components belong
+     * to it, from all the metadata caches. The contexts already created keep
+     * working with the metadata they have.
+     *
+     * @param loader The class loader.
+     */
+    void unload(ClassLoader loader) {
+        scopeMap.keySet().removeIf(scope -> ClassUtils.isLoadedBy(scope, loader));
+        ScopeTemplate.unload(loader);
+        ServiceMap.unload(loader);
+        ClassSetLoader.instance().unload(loader);
+    }
+
+    /**
+     * Drops all the metadata caches, the next contexts read the class path
+     * again. The startup profile being recorded is saved.
+     */
+    void clear() {
+        scopeMap.clear();
+        ScopeTemplate.clear();
+        ServiceMap.clear();
+        ClassSetLoader.instance().clear();
+        StartupProfile.stop();
     }
 
 }
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.container;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipFile;
+
+/**
+ * A copy of the components index of the class path saved in a local file, so
+ * the next starts of the same build read a single file instead of looking
+ * up and parsing every index file through the class loader. The snapshot is
+ * enabled by giving its path in the {@value #SNAPSHOT_PROPERTY} system
+ * property.
+ * <p>
+ * The snapshot is keyed by the checksums of the index files of the class
+ * path, taken from the central directory of the jars and from the contents
+ * of the files in directories, so it does not depend on timestamps that
+ * reproducible builds and container images fix. When any of them changes the
+ * snapshot is ignored and written again.
+ * <p>
+ * Since the index records the services, priorities and flags of the
+ * components, the service maps are built from the snapshot without loading
+ * any class. The entries of index files without that metadata are saved
+ * again with the metadata taken from their classes once they are loaded, so
+ * the next starts do not load them either. The members of the components are
+ * still read with reflection when their classes are first used.
+ *
+ * @author Gilberto Vento
+ */
+final class IndexSnapshot {
+    private static final Logger LOG = Logger.getLogger(IndexSnapshot.class.getName());
+
+    /**
+     * The system property with the path of the snapshot file.
+     */
+    static final String SNAPSHOT_PROPERTY = "shrike.snapshot";
+
+    /**
+     * The key of the fingerprint in the snapshot file, it cannot be the name
+     * of a class.
+     */
+    private static final String FINGERPRINT_KEY = "#fingerprint";
+
+    private static final String INDEX_DIR = "META-INF/shrike";
+
+    private static final String INDEX_NAME = "ioc-components.properties";
+
+    private final Path file;
+
+    private final String fingerprint;
+
+    private IndexSnapshot(Path file, String fingerprint) {
+        this.file = file;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Opens the snapshot given by the {@value #SNAPSHOT_PROPERTY} system
+     * property.
+     *
+     * @param loader The class loader to look for the index files.
+     * @return The snapshot, or null if the snapshot is not enabled or the
+     * class path cannot be fingerprinted.
+     */
+    static IndexSnapshot open(ClassLoader loader) {
+        var path = System.getProperty(SNAPSHOT_PROPERTY);
+        if (path == null || path.isBlank()) {
+            return null;
+        }
+        try {
+            return new IndexSnapshot(Paths.get(path), fingerprint(loader));
+        } catch (IOException | RuntimeException | NoSuchAlgorithmException ex) {
+            LOG.log(Level.WARNING, "The components snapshot is disabled: " + ex.getMessage(), ex);
+        }
+        return null;
+    }
+
+    /**
+     * Reads the index saved in the snapshot.
+     *
+     * @return The components index, or null if there is no snapshot or it
+     * was saved for a different class path.
+     */
+    Map<String, String> read() {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        var prop = new Properties();
+        try (InputStream is = Files.newInputStream(file)) {
+            prop.load(is);
+        } catch (IOException | IllegalArgumentException ex) {
+            LOG.log(Level.WARNING, "The components snapshot " + file + " cannot be read.", ex);
+            return null;
+        }
+        if (!fingerprint.equals(prop.getProperty(FINGERPRINT_KEY))) {
+            return null;
+        }
+        prop.remove(FINGERPRINT_KEY);
+        var result = new HashMap<String, String>();
+        prop.forEach((key, value) -> result.put((String) key, (String) value));
+        return result;
+    }
+
+    /**
+     * Saves the index in the snapshot, the file is replaced atomically so
+     * other processes never read a partial snapshot.
+     *
+     * @param index The components index of the class path.
+     */
+    void write(Map<String, String> index) {
+        var prop = new Properties();
+        prop.putAll(index);
+        prop.setProperty(FINGERPRINT_KEY, fingerprint);
+        try {
+            var dir = file.toAbsolutePath().getParent();
+            if (dir != null) {
+                Files.createDirectories(dir);
+            }
+            var tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            try (OutputStream os = Files.newOutputStream(tmp)) {
+                prop.store(os, "Shrike components snapshot");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "The components snapshot " + file + " cannot be written.", ex);
+        }
+    }
+
+    /**
+     * Computes the fingerprint of the index files of the class path, the
+     * same files {@link ClassSetLoader} reads: every
+     * {@value #INDEX_NAME} under the {@value #INDEX_DIR} directories and
+     * every entry with that name in the jars that have the directory. The
+     * entries of the jars are described by the size and checksum stored in
+     * their central directory, so they are neither read nor inflated, the
+     * files of the directories have no such table and are hashed.
+     */
+    private static String fingerprint(ClassLoader loader) throws IOException, NoSuchAlgorithmException {
+        var parts = new ArrayList<String>();
+        var resources = loader.getResources(INDEX_DIR);
+        while (resources.hasMoreElements()) {
+            var url = resources.nextElement();
+            if (url.getProtocol().equals("file")) {
+                parts.addAll(describeDir(url));
+            } else if (url.getProtocol().equals("jar")) {
+                parts.addAll(describeJar(url));
+            } else {
+                throw new IOException("Unsupported index location " + url);
+            }
+        }
+        Collections.sort(parts);
+        var digest = MessageDigest.getInstance("SHA-256");
+        for (var part : parts) {
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        return hex(digest.digest());
+    }
+
+    private static List<String> describeDir(URL url) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(Paths.get(url.toURI()))) {
+            files = walk.filter(file -> file.getFileName().toString().endsWith(INDEX_NAME) && Files.isRegularFile(file))
+                    .collect(Collectors.toList());
+        } catch (URISyntaxException ex) {
+            throw new IOException(ex);
+        }
+        var result = new ArrayList<String>();
+        for (var file : files) {
+            try (InputStream is = Files.newInputStream(file)) {
+                var digest = MessageDigest.getInstance("SHA-256");
+                result.add(file.toUri() + "|" + hex(digest.digest(is.readAllBytes())));
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IOException(ex);
+            }
+        }
+        return result;
+    }
+
+    private static List<String> describeJar(URL url) throws IOException {
+        var path = url.getPath();
+        var sep = path.indexOf("!/");
+        if (sep < 0) {
+            throw new IOException("Unsupported index location " + url);
+        }
+        Path jarPath;
+        try {
+            jarPath = Paths.get(new URL(path.substring(0, sep)).toURI());
+        } catch (URISyntaxException ex) {
+            throw new IOException(ex);
+        }
+        var result = new ArrayList<String>();
+        try (var jar = new ZipFile(jarPath.toFile())) {
+            var entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                var entry = entries.nextElement();
+                if (entry.getName().endsWith("/" + INDEX_NAME)) {
+                    result.add(jarPath.toUri() + "!/" + entry.getName() + "|" + entry.getSize()
+                            + "|" + Long.toHexString(entry.getCrc()));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static String hex(byte[] bytes) {
+        var result = new StringBuilder(bytes.length * 2);
+        for (var b : bytes) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
+}
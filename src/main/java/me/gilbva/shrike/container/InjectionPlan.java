@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.container;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import me.gilbva.shrike.context.MembersInjector;
+
+/**
+ * The injection of a class bound to a context. The values of the injection
+ * points that resolve to a singleton kept by the context or by its parents
+ * are resolved only the first time and reused for every injected instance, so injecting many
+ * instances of the same class does not lookup the same dependencies again.
+ *
+ * @author Gilberto Vento
+ */
+final class InjectionPlan implements MembersInjector<Object> {
+    private static final Logger LOG = Logger.getLogger(InjectionPlan.class.getName());
+
+    private final ContextImpl<?> context;
+
+    private final List<InjectionPoint> points;
+
+    private final AtomicReferenceArray<Object> resolved;
+
+    /**
+     * Constructor for this class.
+     *
+     * @param context The context to resolve the dependencies in.
+     * @param cache   The cache of the class to inject.
+     */
+    InjectionPlan(ContextImpl<?> context, ClassCache cache) {
+        this.context = context;
+        this.points = cache.getInjectionPoints();
+        this.resolved = new AtomicReferenceArray<>(points.size());
+    }
+
+    @Override
+    public void injectMembers(Object obj) {
+        for (int i = 0; i < points.size(); i++) {
+            var point = points.get(i);
+            try {
+                point.set(obj, resolve(i, point));
+            } catch (IllegalArgumentException | IllegalAccessException ex) {
+                LOG.log(Level.SEVERE, ex.getMessage(), ex);
+            }
+        }
+    }
+
+    private Object resolve(int index, InjectionPoint point) {
+        var value = resolved.get(index);
+        if (value != null) {
+            return value;
+        }
+        value = point.resolve(context);
+        //Only the singletons kept by the context or its parents are reused,
+        //the components of a thread or of other per task scopes are not.
+        if (value != null && context.holds(value)) {
+            resolved.set(index, value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.container;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.util.concurrent.ScheduledExecutorService;
+
+import me.gilbva.shrike.annotations.InjectNext;
+import me.gilbva.shrike.annotations.ManagedExecutor;
+
+/**
+ * A field of a class that must be injected, or a parameter of its injected
+ * constructor, with everything needed to resolve its value already extracted
+ * from the field or parameter and its annotations.
+ *
+ * @author Gilberto Vento
+ */
+final class InjectionPoint {
+    private final Field field;
+
+    private final Type service;
+
+    private final Integer priority;
+
+    private final MethodHandle setter;
+
+    private final String executor;
+
+    /**
+     * Constructor for this class.
+     *
+     * @param field The field annotated with {@literal @Inject} or
+     *              {@literal @InjectNext}, already accessible.
+     */
+    InjectionPoint(Field field) {
+        this.field = field;
+        this.service = field.getGenericType();
+        if (field.getAnnotation(InjectNext.class) != null) {
+            this.priority = ClassUtils.findPriority(field.getDeclaringClass());
+        } else {
+            this.priority = null;
+        }
+        this.setter = findSetter(field);
+        var managed = field.getAnnotation(ManagedExecutor.class);
+        this.executor = managed != null ? managed.value() : null;
+    }
+
+    /**
+     * Constructor for the parameters of injected constructors, these points
+     * are only resolved, they cannot be set.
+     *
+     * @param parameter The parameter of the constructor.
+     * @param next      true the parameter or its constructor is annotated
+     *                  with {@literal @InjectNext}.
+     */
+    InjectionPoint(Parameter parameter, boolean next) {
+        this.field = null;
+        this.service = parameter.getParameterizedType();
+        if (next || parameter.getAnnotation(InjectNext.class) != null) {
+            this.priority = ClassUtils.findPriority(parameter.getDeclaringExecutable().getDeclaringClass());
+        } else {
+            this.priority = null;
+        }
+        this.setter = null;
+        var managed = parameter.getAnnotation(ManagedExecutor.class);
+        this.executor = managed != null ? managed.value() : null;
+    }
+
+    /**
+     * Resolves the value of the field in the given context.
+     *
+     * @param context The context to lookup the dependency.
+     * @return The value to inject.
+     */
+    Object resolve(ContextImpl<?> context) {
+        if (executor != null) {
+            if (service == ScheduledExecutorService.class) {
+                return context.scheduler(executor);
+            }
+            return context.executor(executor);
+        }
+        if (priority == null) {
+            return context.findGeneric(service);
+        }
+        return context.findNextGeneric(service, priority);
+    }
+
+    /**
+     * The type of the service to inject.
+     *
+     * @return The generic type of the field or parameter.
+     */
+    Type getService() {
+        return service;
+    }
+
+    /**
+     * The priority of the class that declares the field, used to lookup the
+     * next component for {@literal @InjectNext} fields.
+     *
+     * @return The priority, or null if the field is not
+     * {@literal @InjectNext}.
+     */
+    Integer getPriority() {
+        return priority;
+    }
+
+    /**
+     * Sets the value of the field on the given instance, through a method
+     * handle when the field allows it.
+     *
+     * @param obj   The instance to inject.
+     * @param value The value of the field.
+     * @throws IllegalAccessException   If the field cannot be accessed.
+     * @throws IllegalArgumentException If the value does not match the type
+     *                                  of the field.
+     */
+    void set(Object obj, Object value) throws IllegalAccessException {
+        if (setter == null) {
+            field.set(obj, value);
+            return;
+        }
+        try {
+            setter.invokeExact(obj, value);
+        } catch (ClassCastException | NullPointerException ex) {
+            throw new IllegalArgumentException(ex.getMessage(), ex);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+    }
+
+    private static MethodHandle findSetter(Field field) {
+        try {
+            return MethodHandles.lookup().unreflectSetter(field)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+        } catch (IllegalAccessException ex) {
+            return null;
+        }
+    }
+}
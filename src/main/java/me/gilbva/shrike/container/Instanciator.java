@@ -16,16 +16,18 @@
 
 package me.gilbva.shrike.container;
 
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import me.gilbva.shrike.context.IocContextListener;
-import me.gilbva.shrike.annotations.Inject;
-import me.gilbva.shrike.annotations.InjectNext;
 
 /**
  * This class is responsable of the creation of the components.
@@ -35,181 +37,286 @@ import me.gilbva.shrike.annotations.InjectNext;
 class Instanciator {
     private static final Logger LOG = Logger.getLogger(Instanciator.class.getName());
 
+    private static final CompletableFuture<Void> COMPLETED = CompletableFuture.completedFuture(null);
+
     private final ContextImpl<?> context;
 
-    private final ServiceMap serviceMap;
+    private final ScopeTemplate template;
+
+    /**
+     * The plans, factories and pools of the context, created the first time
+     * one is needed so contexts that never use them do not pay for them.
+     */
+    private volatile Bindings bindings;
 
-    private IocContextListener[] contextListeners;
+    /**
+     * Guards the creation of the bindings, a lock instead of synchronized so
+     * virtual threads do not pin their carrier threads.
+     */
+    private final ReentrantLock lock;
 
-    Instanciator(ContextImpl context, ServiceMap serviceMap) {
+    Instanciator(ContextImpl context, ScopeTemplate template) {
         this.context = context;
-        this.serviceMap = serviceMap;
+        this.template = template;
+        this.lock = new ReentrantLock();
     }
 
+    /**
+     * Creates a new instance of the component, the parameters of its
+     * constructor are resolved in the context like injected fields.
+     *
+     * @param <T> The type of the component.
+     * @param cls The class of the component.
+     * @return The new instance, or null if it cannot be created.
+     */
     @SuppressWarnings("UseSpecificCatch")
     <T> T instantiate(Class<T> cls) {
         try {
-            var constructor = context.findCache(cls).getConstructor();
+            var cache = context.findCache(cls);
+            var constructor = cache.getConstructor();
             if (constructor == null) {
                 return null;
             }
-            constructor.trySetAccessible();
-            return (T) constructor.newInstance();
+            var points = cache.getConstructorPoints();
+            var args = new Object[points.size()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = points.get(i).resolve(context);
+            }
+            return (T) constructor.newInstance(args);
         } catch (InstantiationException | IllegalArgumentException | InvocationTargetException | IllegalAccessException ex) {
             LOG.warning(ex.getMessage());
         }
         return null;
     }
 
-    void callPostConstruct(Class cls, Object obj) {
+    /**
+     * Calls the {@link me.gilbva.shrike.annotations.ComponentInit} methods of
+     * the component, methods returning a {@link CompletionStage} are
+     * considered asynchronous and are awaited jointly.
+     *
+     * @param cls The class of the component.
+     * @param obj The instance of the component.
+     * @return A future that completes when all the asynchronous init methods
+     * are completed.
+     */
+    CompletableFuture<Void> callPostConstruct(Class cls, Object obj) {
+        List<CompletableFuture<?>> pending = null;
         var currentClass = cls;
         while (!currentClass.equals(Object.class)) {
             var methods = context.findCache(currentClass).getPostConstructs();
             for (var method : methods) {
                 try {
-                    method.invoke(obj);
+                    var result = method.invoke(obj);
+                    if (result instanceof CompletionStage) {
+                        if (pending == null) {
+                            pending = new ArrayList<>();
+                        }
+                        pending.add(((CompletionStage<?>) result).toCompletableFuture());
+                    }
                 } catch (SecurityException | IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
                     LOG.log(Level.SEVERE, ex.getMessage(), ex);
                 }
             }
             currentClass = currentClass.getSuperclass();
         }
+        if (pending == null) {
+            return COMPLETED;
+        }
+        return CompletableFuture.allOf(pending.toArray(new CompletableFuture[0]));
     }
 
+    /**
+     * Injects the dependencies of a component that is created only once in
+     * the context.
+     *
+     * @param cls The class of the component.
+     * @param obj The instance of the component.
+     */
     void injectDependencies(Class cls, Object obj) {
-        var fields = context.findCache(cls).getInjectFields();
-        for (var field : fields) {
-            var annotation = field.getAnnotation(Inject.class);
-            if (annotation != null) {
-                injectDependency(cls, obj, field, null);
-            }
-            var annotationNext = field.getAnnotation(InjectNext.class);
-            if (annotationNext != null) {
-                injectDependency(cls, obj, field, ClassUtils.findPriority(cls));
-            }
+        for (var point : context.findCache(cls).getInjectionPoints()) {
+            injectDependency(obj, point);
         }
+    }
 
-        var supClass = cls.getSuperclass();
-        if (supClass != null && supClass != Object.class) {
-            injectDependencies(supClass, obj);
+    /**
+     * Injects the dependencies of an instance using the cached injection plan
+     * of its class, for classes whose instances are injected many times in
+     * the context.
+     *
+     * @param cls The class of the instance.
+     * @param obj The instance to inject.
+     */
+    void injectPlanned(Class<?> cls, Object obj) {
+        findPlan(cls).injectMembers(obj);
+    }
+
+    /**
+     * Gets the injection plan of a class bound to the context.
+     *
+     * @param cls The class to inject.
+     * @return The cached injection plan.
+     */
+    InjectionPlan findPlan(Class<?> cls) {
+        var plans = bindings().plans;
+        var plan = plans.get(cls);
+        if (plan == null) {
+            plan = plans.computeIfAbsent(cls, c -> new InjectionPlan(context, context.findCache(c)));
         }
+        return plan;
     }
 
-    private void injectDependency(Class cls, Object obj, Field field, Integer priority) {
-        try {
-            var service = field.getGenericType();
-            Object componentObj;
-            if (priority == null) {
-                componentObj = context.findGeneric(service);
-            } else {
-                componentObj = context.findNextGeneric(service, priority);
-            }
+    /**
+     * Gets the implementation of an assisted factory bound at runtime to the
+     * context, binding it the first time.
+     *
+     * @param cls The factory interface.
+     * @return The implementation of the factory, or null if it cannot be
+     * bound.
+     */
+    Object findFactory(Class<?> cls) {
+        var factories = bindings().factories;
+        var factory = factories.get(cls);
+        if (factory == null) {
+            factory = factories.computeIfAbsent(cls, c -> AssistedFactoryBinder.bind(context, c));
+        }
+        return factory;
+    }
 
-            field.set(obj, componentObj);
-        } catch (IllegalArgumentException | IllegalAccessException ex) {
-            LOG.log(Level.SEVERE, ex.getMessage(), ex);
+    /**
+     * Gets the pool of a pooled component of the context, creating it the
+     * first time.
+     *
+     * @param <T> The type of the component.
+     * @param cls The class of the component.
+     * @return The pool of the component.
+     */
+    <T> BoundedPool<T> findPool(Class<T> cls) {
+        var pools = bindings().pools;
+        var pool = pools.get(cls);
+        if (pool == null) {
+            pool = pools.computeIfAbsent(cls, c -> new BoundedPool<>(cls,
+                    () -> (T) context.createComponent(cls), template.getCache()));
         }
+        return (BoundedPool<T>) pool;
     }
 
-    private void initContextListeners() {
-        if (null == contextListeners) {
-            contextListeners = context.findAll(IocContextListener.class);
+    /**
+     * Drops the injection plans of the context, and the assisted factories
+     * and pools of the classes of the given class loader.
+     *
+     * @param loader The class loader.
+     */
+    void unload(ClassLoader loader) {
+        var current = bindings;
+        if (current == null) {
+            return;
         }
+        //Plans of other classes may hold instances of the loader.
+        current.plans.clear();
+        current.factories.keySet().removeIf(cls -> ClassUtils.isLoadedBy(cls, loader));
+        current.pools.entrySet().removeIf(e ->
+        {
+            if (ClassUtils.isLoadedBy(e.getKey(), loader)) {
+                e.getValue().close();
+                return true;
+            }
+            return false;
+        });
     }
 
-    <T> void invokePreCreateListener(Class<T> cls) {
-        if (IocContextListener.class.isAssignableFrom(cls)) {
+    /**
+     * Closes the pools of the context.
+     */
+    void closePools() {
+        var current = bindings;
+        if (current == null) {
             return;
         }
+        for (var pool : current.pools.values()) {
+            pool.close();
+        }
+    }
 
-        initContextListeners();
-        if (null != contextListeners) {
-            for (var contextListener : contextListeners) {
-                //find the generic parameter type of ContextListener, 
-                //example ContexListener<Integer> -> type = java.lang.Integer
-                var type = findGenericType(contextListener.getClass());
-                if (type.equals(Object.class)) {
-                    contextListener.preCreateComponent(cls);
-                } else {
-                    var services = serviceMap.getServices(cls);
-                    if (services != null) {
-                        for (var service : services) {
-                            if (type.equals(service)) {
-                                contextListener.preCreateComponent(cls);
-                                break;
-                            }
-                        }
-                    }
+    private Bindings bindings() {
+        var result = bindings;
+        if (result == null) {
+            lock.lock();
+            try {
+                result = bindings;
+                if (result == null) {
+                    result = new Bindings();
+                    bindings = result;
                 }
+            } finally {
+                lock.unlock();
             }
         }
+        return result;
     }
 
-    <T> void invokePreInitListener(Class<T> cls, Object instance) {
-        if (IocContextListener.class.isAssignableFrom(cls)) {
-            return;
+    private void injectDependency(Object obj, InjectionPoint point) {
+        try {
+            var componentObj = point.resolve(context);
+            point.set(obj, componentObj);
+        } catch (IllegalArgumentException | IllegalAccessException ex) {
+            LOG.log(Level.SEVERE, ex.getMessage(), ex);
         }
+    }
 
-        initContextListeners();
-        if (null != contextListeners) {
-            for (var contextListener : contextListeners) {
-                //find the generic parameter type of ContextListener, 
-                //example ContexListener<Integer> -> type = java.lang.Integer
-                var type = findGenericType(contextListener.getClass());
-                if (type.equals(Object.class)) {
-                    contextListener.preInitComponent(cls, instance);
-                } else {
-                    var services = serviceMap.getServices(cls);
-                    if (services != null) {
-                        for (var service : services) {
-                            if (type.equals(service)) {
-                                contextListener.preInitComponent(cls, instance);
-                                break;
-                            }
-                        }
-                    }
-                }
+    <T> void invokePreCreateListener(Class<T> cls) {
+        for (var index : template.listenersOf(cls)) {
+            var contextListener = findListener(index);
+            if (contextListener != null) {
+                contextListener.preCreateComponent(cls);
             }
         }
     }
 
-    <T> void invokePostInitListener(Class<T> cls, Object instance) {
-        if (IocContextListener.class.isAssignableFrom(cls)) {
-            return;
+    <T> void invokePreInitListener(Class<T> cls, Object instance) {
+        for (var index : template.listenersOf(cls)) {
+            var contextListener = findListener(index);
+            if (contextListener != null) {
+                contextListener.preInitComponent(cls, instance);
+            }
         }
+    }
 
-        initContextListeners();
-        if (null != contextListeners) {
-            for (var contextListener : contextListeners) {
-                //find the generic parameter type of ContextListener, 
-                //example ContexListener<Integer> -> type = java.lang.Integer
-                var type = findGenericType(contextListener.getClass());
-                if (type.equals(Object.class)) {
-                    contextListener.postInitComponent(cls, instance);
-                } else {
-                    var services = serviceMap.getServices(cls);
-                    if (services != null) {
-                        for (var service : services) {
-                            if (type.equals(service)) {
-                                contextListener.postInitComponent(cls, instance);
-                                break;
-                            }
-                        }
-                    }
-                }
+    <T> void invokePostInitListener(Class<T> cls, Object instance) {
+        for (var index : template.listenersOf(cls)) {
+            var contextListener = findListener(index);
+            if (contextListener != null) {
+                contextListener.postInitComponent(cls, instance);
             }
         }
     }
 
-    private Type findGenericType(Class<? extends IocContextListener> clazz) {
-        var ifcs = clazz.getGenericInterfaces();
-        for (var ifc : ifcs) {
-            if (ifc instanceof ParameterizedType
-                    && ClassUtils.rawClass(ifc).equals(IocContextListener.class)) {
-                return (((ParameterizedType) ifc).getActualTypeArguments())[0];
-            }
+    private IocContextListener findListener(int index) {
+        var cls = template.componentAt(index);
+        if (cls == context.getScopeClass() && context.sharesScope()) {
+            return null;
         }
-        return Object.class;
+        return (IocContextListener) context.createComponent(cls);
     }
 
+
+    /**
+     * The bindings of the context that are created on demand.
+     */
+    private static final class Bindings {
+        /**
+         * The injection plans of the classes injected many times in the
+         * context.
+         */
+        private final Map<Class<?>, InjectionPlan> plans = new ConcurrentHashMap<>();
+
+        /**
+         * The assisted factories bound at runtime in the context.
+         */
+        private final Map<Class<?>, Object> factories = new ConcurrentHashMap<>();
+
+        /**
+         * The pools of the pooled components of the context.
+         */
+        private final Map<Class<?>, BoundedPool<?>> pools = new ConcurrentHashMap<>();
+    }
 }
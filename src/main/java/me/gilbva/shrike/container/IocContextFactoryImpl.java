@@ -58,4 +58,14 @@ public class IocContextFactoryImpl implements IocContextFactory {
         }
         return null;
     }
+
+    @Override
+    public void unload(ClassLoader loader) {
+        GlobalCache.instance().unload(loader);
+    }
+
+    @Override
+    public void reset() {
+        GlobalCache.instance().clear();
+    }
 }
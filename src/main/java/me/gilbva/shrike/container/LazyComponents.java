@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.container;
+
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * An iterable over all the components that provide a service, in priority
+ * order, that creates every component only when the iteration reaches it.
+ * Stopping the iteration early leaves the rest of the components
+ * unconstructed.
+ *
+ * @param <T> The type of the service.
+ * @author Gilberto Vento
+ */
+class LazyComponents<T> implements Iterable<T> {
+    private final ContextImpl<?> context;
+
+    private final Type service;
+
+    /**
+     * Constructor for this class.
+     *
+     * @param context The context to create the components in.
+     * @param service The service provided by the components.
+     */
+    LazyComponents(ContextImpl<?> context, Type service) {
+        this.context = context;
+        this.service = service;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        var components = context.findComponents(service);
+        if ((components == null || components.isEmpty()) && context.getParent() != null) {
+            return (Iterator<T>) context.getParent().streamGeneric(service).iterator();
+        }
+        return new LazyIterator(components);
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    /**
+     * Iterator that creates the components one by one, components that
+     * cannot be created are skipped.
+     */
+    private final class LazyIterator implements Iterator<T> {
+        private final List<ComponentEntry> components;
+
+        private int index;
+
+        private T next;
+
+        private LazyIterator(List<ComponentEntry> components) {
+            this.components = components;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && components != null && index < components.size()) {
+                //The class of the component is loaded only when it is reached.
+                var cls = components.get(index++).resolve();
+                if (cls != null) {
+                    next = (T) context.createComponent(cls);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            var result = next;
+            next = null;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.container;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * The executors managed by a root context. Every executor has a name, it is
+ * created the first time it is requested and configured through system
+ * properties, and all the executors are shut down when the context is closed.
+ * <ul>
+ * <li>{@literal shrike.executor.<name>.type}: {@literal platform},
+ * {@literal virtual} or {@literal scheduled}, by default scheduled when first
+ * requested as a {@link ScheduledExecutorService}, platform otherwise.</li>
+ * <li>{@literal shrike.executor.<name>.size}: The amount of threads, by
+ * default the amount of processors, or one for scheduled executors.</li>
+ * </ul>
+ * Idle threads of platform executors are stopped after a minute.
+ *
+ * @author Gilberto Vento
+ */
+final class ManagedExecutors {
+    private static final Logger LOG = Logger.getLogger(ManagedExecutors.class.getName());
+
+    /**
+     * The prefix of the system properties of the executors.
+     */
+    static final String PROPERTY_PREFIX = "shrike.executor.";
+
+    /**
+     * The name of the executor used when no name is given.
+     */
+    static final String DEFAULT = "default";
+
+    /**
+     * The name of the scheduled executor used when no name is given.
+     */
+    static final String DEFAULT_SCHEDULER = "scheduler";
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final Map<String, ExecutorService> executors;
+
+    private final ReentrantLock lock;
+
+    private boolean closed;
+
+    ManagedExecutors() {
+        this.executors = new ConcurrentHashMap<>();
+        this.lock = new ReentrantLock();
+    }
+
+    /**
+     * Determines if the given type is an executor type managed by the
+     * context.
+     *
+     * @param service The type of the service.
+     * @return true the type is Executor, ExecutorService or
+     * ScheduledExecutorService.
+     */
+    static boolean provides(Type service) {
+        return service == Executor.class || service == ExecutorService.class
+                || service == ScheduledExecutorService.class;
+    }
+
+    /**
+     * Gets the executor with the given name, creating it the first time.
+     *
+     * @param name      The name of the executor, null or empty for the
+     *                  default one.
+     * @param scheduled true if the executor must be able to schedule tasks.
+     * @return The executor.
+     * @throws IllegalStateException If the context is closed, or a scheduled
+     *                               executor was requested and the executor
+     *                               with that name is not one.
+     */
+    ExecutorService get(String name, boolean scheduled) {
+        if (name == null || name.isEmpty()) {
+            name = scheduled ? DEFAULT_SCHEDULER : DEFAULT;
+        }
+        var executor = executors.get(name);
+        if (executor == null) {
+            lock.lock();
+            try {
+                if (closed) {
+                    throw new IllegalStateException("The context is closed.");
+                }
+                executor = executors.get(name);
+                if (executor == null) {
+                    executor = create(name, scheduled);
+                    executors.put(name, executor);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (scheduled && !(executor instanceof ScheduledExecutorService)) {
+            throw new IllegalStateException("The executor '" + name + "' is a " + executor.getClass().getName()
+                    + " and not a " + ScheduledExecutorService.class.getName()
+                    + ", set the system property " + PROPERTY_PREFIX + name + ".type=scheduled.");
+        }
+        return executor;
+    }
+
+    /**
+     * Shuts down all the executors, the tasks already submitted are still
+     * executed.
+     */
+    void shutdown() {
+        lock.lock();
+        try {
+            closed = true;
+            for (var executor : executors.values()) {
+                executor.shutdown();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ExecutorService create(String name, boolean scheduled) {
+        var type = System.getProperty(PROPERTY_PREFIX + name + ".type", scheduled ? "scheduled" : "platform");
+        var factory = new NamedThreadFactory(name);
+        if ("scheduled".equals(type)) {
+            var size = Integer.getInteger(PROPERTY_PREFIX + name + ".size", 1);
+            var executor = new ScheduledThreadPoolExecutor(size, factory);
+            executor.setRemoveOnCancelPolicy(true);
+            return executor;
+        }
+        if ("virtual".equals(type)) {
+            var executor = createVirtual();
+            if (executor != null) {
+                return executor;
+            }
+            LOG.info("Virtual threads are not available, the executor '" + name + "' uses platform threads.");
+        }
+        var size = Integer.getInteger(PROPERTY_PREFIX + name + ".size", Runtime.getRuntime().availableProcessors());
+        var executor = new ThreadPoolExecutor(size, size, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), factory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ExecutorService createVirtual() {
+        try {
+            var method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates daemon threads named after the executor.
+     */
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+
+        private final AtomicInteger count;
+
+        private NamedThreadFactory(String name) {
+            this.prefix = "shrike-" + name + "-";
+            this.count = new AtomicInteger();
+        }
+
+        @Override
+        public Thread newThread(Runnable task) {
+            var thread = new Thread(task, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
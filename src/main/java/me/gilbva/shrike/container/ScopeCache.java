@@ -16,22 +16,27 @@
 
 package me.gilbva.shrike.container;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
 /**
  * Cache for scope classes.
+ * <p>
+ * The data of every class is kept in a {@link ClassValue}, so it is held by
+ * the class itself and does not keep its class loader reachable.
  *
  * @author Gilberto Vento
  */
 class ScopeCache {
-    private final Map<Class<?>, ClassCache> classMap;
+    private final ClassValue<ClassCache> classMap;
 
     /**
      * Default constructor.
      */
     ScopeCache() {
-        classMap = new ConcurrentHashMap<>();
+        classMap = new ClassValue<>() {
+            @Override
+            protected ClassCache computeValue(Class<?> type) {
+                return new ClassCache(type);
+            }
+        };
     }
 
     /**
@@ -41,11 +46,6 @@ class ScopeCache {
      * @return The class cache.
      */
     ClassCache getCache(Class<?> cls) {
-        var cache = classMap.get(cls);
-        if (cache == null) {
-            cache = new ClassCache(cls);
-            classMap.put(cls, cache);
-        }
-        return cache;
+        return classMap.get(cls);
     }
 }
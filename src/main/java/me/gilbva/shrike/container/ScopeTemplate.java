@@ -0,0 +1,411 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.container;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import me.gilbva.shrike.context.IocContextListener;
+
+/**
+ * Holds everything that is shared by all the contexts of a scope class, so
+ * creating a context of the scope only needs to allocate the slots for its
+ * component instances.
+ * <p>
+ * Every component of the scope has an index on the slots array, the context
+ * listeners that apply to each component are resolved once per scope, and
+ * the slots of closed contexts can be recycled through a pool whose size is
+ * given by the {@value #POOL_SIZE_PROPERTY} system property, zero by default.
+ *
+ * @author Gilberto Vento
+ */
+class ScopeTemplate {
+    /**
+     * The system property with the max amount of slot arrays pooled by scope.
+     */
+    static final String POOL_SIZE_PROPERTY = "shrike.context.pool.size";
+
+    private static final int[] NO_LISTENERS = new int[0];
+
+    /**
+     * A cache for the templates of all scopes.
+     */
+    private static final Map<Class<?>, ScopeTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
+    /**
+     * Guards the creation of the templates.
+     */
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private final ClassSet classSet;
+
+    private final ServiceMap serviceMap;
+
+    private final ScopeCache cache;
+
+    private final Map<String, Integer> indexes;
+
+    private final ComponentEntry[] components;
+
+    private final int[][] listeners;
+
+    private final List<Class<?>> eagerComponents;
+
+    private final boolean[] destroyable;
+
+    private final boolean[] prototypes;
+
+    private final boolean hasDestroyable;
+
+    private final boolean injectScope;
+
+    private final Queue<AtomicReferenceArray<Object>> pool;
+
+    private final AtomicInteger pooled;
+
+    private final int poolSize;
+
+    private ScopeTemplate(Class<?> scope) {
+        classSet = ClassSet.findByScope(scope);
+        serviceMap = ServiceMap.findByScope(scope);
+        cache = GlobalCache.instance().getScope(scope);
+        indexes = new HashMap<>();
+        var list = new ArrayList<ComponentEntry>();
+        eagerComponents = new ArrayList<>();
+        if (classSet != null) {
+            for (var entry : classSet.getEntries()) {
+                indexes.put(entry.getName(), list.size());
+                list.add(entry);
+                //Eager components are created with the context, so only their
+                //classes are loaded here.
+                var cls = entry.isEager() ? entry.resolve() : null;
+                if (cls != null) {
+                    eagerComponents.add(cls);
+                }
+            }
+        }
+        components = list.toArray(new ComponentEntry[0]);
+        listeners = findListeners();
+        destroyable = new boolean[components.length];
+        prototypes = new boolean[components.length];
+        var anyDestroyable = false;
+        for (int i = 0; i < components.length; i++) {
+            //Pooled components are created as prototypes, the pool keeps them.
+            var entry = components[i];
+            prototypes[i] = entry.isPrototype();
+            if (!prototypes[i]) {
+                //The processor records the destroy methods, the classes
+                //listed without metadata are already loaded.
+                var cls = entry.isIndexed() ? null : entry.resolve();
+                destroyable[i] = cls != null ? hasDestroyMethods(cls) : entry.isDestroyable();
+            }
+            anyDestroyable |= destroyable[i];
+        }
+        hasDestroyable = anyDestroyable;
+        injectScope = hasInjectFields(scope);
+        pool = new ConcurrentLinkedQueue<>();
+        pooled = new AtomicInteger();
+        poolSize = Integer.getInteger(POOL_SIZE_PROPERTY, 0);
+    }
+
+    /**
+     * Gets the template for the given scope.
+     *
+     * @param scope The scope class.
+     * @return The template of the scope.
+     */
+    static ScopeTemplate findByScope(Class<?> scope) {
+        var template = TEMPLATES.get(scope);
+        if (template != null) {
+            return template;
+        }
+        //Not computeIfAbsent, building a template reads the class path and
+        //must not block virtual threads inside a synchronized block.
+        LOCK.lock();
+        try {
+            template = TEMPLATES.get(scope);
+            if (template == null) {
+                template = new ScopeTemplate(scope);
+                TEMPLATES.put(scope, template);
+            }
+            return template;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Drops the templates of the scopes that belong to the given class loader
+     * or have components that belong to it.
+     *
+     * @param loader The class loader.
+     */
+    static void unload(ClassLoader loader) {
+        LOCK.lock();
+        try {
+            TEMPLATES.entrySet().removeIf(e -> ClassUtils.isLoadedBy(e.getKey(), loader)
+                    || (e.getValue().classSet != null && e.getValue().classSet.references(loader)));
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Drops all the templates.
+     */
+    static void clear() {
+        LOCK.lock();
+        try {
+            TEMPLATES.clear();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    ClassSet getClassSet() {
+        return classSet;
+    }
+
+    ServiceMap getServiceMap() {
+        return serviceMap;
+    }
+
+    ScopeCache getCache() {
+        return cache;
+    }
+
+    /**
+     * The components marked with {@literal @Component(instantiate = true)}
+     * in priority order.
+     *
+     * @return The list of eager components.
+     */
+    List<Class<?>> getEagerComponents() {
+        return eagerComponents;
+    }
+
+    /**
+     * Determines if the scope object has fields to inject.
+     *
+     * @return true the scope object needs injection, false otherwise.
+     */
+    boolean isInjectScope() {
+        return injectScope;
+    }
+
+    /**
+     * Determines if any component of the scope has destroy methods.
+     *
+     * @return true if the contexts of the scope need a teardown, false
+     * otherwise.
+     */
+    boolean hasDestroyable() {
+        return hasDestroyable;
+    }
+
+    /**
+     * Determines if the component at the given index has destroy methods.
+     *
+     * @param index The index of the component.
+     * @return true the component has destroy methods, false otherwise.
+     */
+    boolean isDestroyable(int index) {
+        return destroyable[index];
+    }
+
+    /**
+     * Determines if the component at the given index is a prototype.
+     *
+     * @param index The index of the component.
+     * @return true a new instance of the component is created for every
+     * lookup, false otherwise.
+     */
+    boolean isPrototype(int index) {
+        return prototypes[index];
+    }
+
+    /**
+     * The amount of components of the scope.
+     *
+     * @return The size of the slots array.
+     */
+    int size() {
+        return components.length;
+    }
+
+    /**
+     * Finds the index of a component on the slots array.
+     *
+     * @param cls The class of the component.
+     * @return The index of the component, or -1 if it is not a component of
+     * this scope.
+     */
+    int indexOf(Class<?> cls) {
+        var index = indexes.get(cls.getName());
+        return index == null || !components[index].is(cls) ? -1 : index;
+    }
+
+    /**
+     * Gets the component at the given index, loading its class if it was not
+     * loaded yet.
+     *
+     * @param index The index of the component.
+     * @return The class of the component.
+     */
+    Class<?> componentAt(int index) {
+        return components[index].resolve();
+    }
+
+    /**
+     * Gets the indexes of the context listeners that must be called for the
+     * given component.
+     *
+     * @param cls The class of the component.
+     * @return The indexes of the listeners in priority order.
+     */
+    int[] listenersOf(Class<?> cls) {
+        var index = indexOf(cls);
+        return index < 0 ? NO_LISTENERS : listeners[index];
+    }
+
+    /**
+     * Gets an empty slots array for a new context, recycling the slots of a
+     * closed context if there is one available.
+     *
+     * @return The slots array.
+     */
+    AtomicReferenceArray<Object> acquireSlots() {
+        var slots = pool.poll();
+        if (slots != null) {
+            pooled.decrementAndGet();
+            return slots;
+        }
+        return new AtomicReferenceArray<>(components.length);
+    }
+
+    /**
+     * Determines if the slots of the closed contexts are returned to the
+     * pool.
+     *
+     * @return true the pool is enabled, false otherwise.
+     */
+    boolean recyclesSlots() {
+        return poolSize > 0;
+    }
+
+    /**
+     * Returns the slots of a closed context to the pool, no lookup of the
+     * closed context may be using them.
+     *
+     * @param slots The slots array.
+     */
+    void releaseSlots(AtomicReferenceArray<Object> slots) {
+        if (pooled.incrementAndGet() > poolSize) {
+            pooled.decrementAndGet();
+            return;
+        }
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+        pool.offer(slots);
+    }
+
+    private int[][] findListeners() {
+        var listenerIndexes = new ArrayList<Integer>();
+        var listenerTypes = new ArrayList<String>();
+        var listenerComponents = serviceMap != null ? serviceMap.findAll(IocContextListener.class) : null;
+        if (listenerComponents != null) {
+            for (var cls : listenerComponents) {
+                listenerIndexes.add(indexOf(cls));
+                listenerTypes.add(findGenericType(cls).getTypeName());
+            }
+        }
+        var result = new int[components.length][];
+        for (int i = 0; i < components.length; i++) {
+            var services = components[i].getServices();
+            if (services.contains(IocContextListener.class.getName())) {
+                result[i] = NO_LISTENERS;
+                continue;
+            }
+            var lst = new ArrayList<Integer>();
+            for (int j = 0; j < listenerIndexes.size(); j++) {
+                var type = listenerTypes.get(j);
+                if (type.equals(Object.class.getName()) || services.contains(type)) {
+                    lst.add(listenerIndexes.get(j));
+                }
+            }
+            result[i] = lst.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return result;
+    }
+
+    /**
+     * Find the generic parameter type of IocContextListener, example
+     * IocContextListener&lt;Integer&gt; -&gt; type = java.lang.Integer
+     *
+     * @param cls The class of the listener.
+     * @return The type of the components the listener listens to.
+     */
+    private static Type findGenericType(Class<?> cls) {
+        var ifcs = cls.getGenericInterfaces();
+        for (var ifc : ifcs) {
+            if (ifc instanceof ParameterizedType
+                    && ClassUtils.rawClass(ifc).equals(IocContextListener.class)) {
+                return (((ParameterizedType) ifc).getActualTypeArguments())[0];
+            }
+        }
+        return Object.class;
+    }
+
+    /**
+     * Determines if a class or any of its super classes has destroy methods.
+     *
+     * @param cls The class to check.
+     * @return true the class has destroy methods, false otherwise.
+     */
+    boolean hasDestroyMethods(Class<?> cls) {
+        var currentClass = cls;
+        while (currentClass != null && currentClass != Object.class) {
+            if (!cache.getCache(currentClass).getDestroys().isEmpty()) {
+                return true;
+            }
+            currentClass = currentClass.getSuperclass();
+        }
+        return false;
+    }
+
+    private boolean hasInjectFields(Class<?> cls) {
+        var currentClass = cls;
+        while (currentClass != null && currentClass != Object.class) {
+            if (!cache.getCache(currentClass).getInjectFields().isEmpty()) {
+                return true;
+            }
+            currentClass = currentClass.getSuperclass();
+        }
+        return false;
+    }
+}
@@ -20,15 +20,35 @@ import java.lang.reflect.Type;
 import java.lang.reflect.WildcardType;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import me.gilbva.shrike.context.IocContext;
 
 /**
  * An object to keep track of the services of the components.
+ * <p>
+ * The components index records the services by their type name, so the map
+ * is built without loading the classes of the components. Lookups are done
+ * by {@link Type}, the first lookup of a type selects the entries of its
+ * name whose class loader sees that same type and caches them by the type,
+ * so classes with the same name from different class loaders are never
+ * mixed and the next lookups do not build the name again. A lookup only
+ * loads the class of the component it selects.
+ * <p>
+ * The map of a scope is shared by all its contexts and never changes, the
+ * components registered at runtime in a context are kept in an overlay of
+ * the context that links every service only to the registered components
+ * that provide it. Registering a component prepends it to the lists of its
+ * own services and creates a new map with a higher version, the maps only
+ * see the registrations up to their version, so the contexts publish the new
+ * map atomically and readers never see a partially updated map. The cost of
+ * a registration is proportional to the services of the new component.
  *
  * @author Gilberto Vento
  */
@@ -39,14 +59,32 @@ class ServiceMap {
     private static final Map<Class<?>, ServiceMap> SERVICES_MAP = new ConcurrentHashMap<>();
 
     /**
-     * The service map, who links a services to a list of components.
+     * The service map, who links the name of a service to a list of
+     * components.
      */
-    private final Map<Type, List<Class<?>>> map;
+    private final Map<String, List<ComponentEntry>> map;
 
     /**
-     * A map who links the components to a list of all it´s services.
+     * The components of the service map by type, resolved on the first
+     * lookup of every type.
      */
-    private final Map<Class<?>, List<Type>> compMap;
+    private final Map<Type, List<ComponentEntry>> types;
+
+    /**
+     * A map who links the components by class name to their entries.
+     */
+    private final Map<String, ComponentEntry> compMap;
+
+    /**
+     * The components registered at runtime in the context, null until the
+     * first one is registered.
+     */
+    private final Overlay overlay;
+
+    /**
+     * The registrations of the overlay seen by this map.
+     */
+    private final int version;
 
     /**
      * Constructor for this class.
@@ -54,21 +92,156 @@ class ServiceMap {
      * @param clsSet The components to create this services map for.
      */
     ServiceMap(ClassSet clsSet) {
-        var servMap = new HashMap<Type, List<Class<?>>>();
-        var compsMap = new HashMap<Class<?>, List<Type>>();
+        var servMap = new HashMap<String, List<ComponentEntry>>();
+        var compsMap = new HashMap<String, ComponentEntry>();
         if (clsSet != null) {
-            for (var component : clsSet) {
-                var services = findServices(component);
-                compsMap.put(component, services);
-                services.stream()
+            for (var component : clsSet.getEntries()) {
+                compsMap.put(component.getName(), component);
+                component.getServices()
                         .forEach(s -> addComponentToService(servMap, s, component));
             }
         }
         servMap.values()
-                .stream()
-                .forEach(ClassUtils::sort);
+                .forEach(lst -> lst.sort(ComponentEntry.BY_PRIORITY));
         this.map = servMap;
+        this.types = new ConcurrentHashMap<>();
         this.compMap = compsMap;
+        this.overlay = null;
+        this.version = 0;
+    }
+
+    private ServiceMap(ServiceMap base, Overlay overlay, int version) {
+        this.map = base.map;
+        this.types = base.types;
+        this.compMap = base.compMap;
+        this.overlay = overlay;
+        this.version = version;
+    }
+
+    /**
+     * Creates a new service map with the services of this one plus a new
+     * component, this map does not see the new component. The cost is
+     * proportional to the services of the new component, the registrations
+     * of a context must not run concurrently.
+     *
+     * @param component The component to add.
+     * @param services  The services provided by the component.
+     * @return The new service map.
+     */
+    ServiceMap withComponent(Class<?> component, List<Type> services) {
+        var current = overlay != null ? overlay : new Overlay();
+        var newVersion = version + 1;
+        var distinct = List.copyOf(new LinkedHashSet<>(services));
+        var entry = ComponentEntry.of(component, distinct);
+        for (var service : distinct) {
+            current.services.compute(service, (k, head) -> new Node(entry, distinct, newVersion, head));
+        }
+        current.components.put(component, new Node(entry, distinct, newVersion, null));
+        return new ServiceMap(this, current, newVersion);
+    }
+
+    /**
+     * Creates a new service map without the registered components that
+     * belong to the given class loader or provide services of it, and drops
+     * the types of the loader resolved by this map. The registrations of a
+     * context must not run concurrently.
+     *
+     * @param loader The class loader.
+     * @return The new service map, or this one if nothing was registered.
+     */
+    ServiceMap without(ClassLoader loader) {
+        types.keySet().removeIf(t -> ComponentEntry.references(t, loader));
+        if (overlay == null) {
+            return this;
+        }
+        var kept = new ArrayList<Node>();
+        overlay.components.forEach((cls, node) -> {
+            if (visible(node) && !ClassUtils.isLoadedBy(cls, loader)
+                    && node.services.stream().noneMatch(s -> ComponentEntry.references(s, loader))) {
+                kept.add(node);
+            }
+        });
+        //The nodes are linked again in the order they were registered.
+        kept.sort(Comparator.comparingInt(node -> node.version));
+        var result = new Overlay();
+        for (var node : kept) {
+            for (var service : node.services) {
+                result.services.compute(service, (k, head) -> new Node(node.entry, node.services, node.version, head));
+            }
+            result.components.put(node.entry.loaded(), node);
+        }
+        return new ServiceMap(this, result, version);
+    }
+
+    private boolean visible(Node node) {
+        return node != null && node.version <= version;
+    }
+
+    private Node registered(Type service) {
+        return overlay != null ? overlay.services.get(service) : null;
+    }
+
+    /**
+     * Finds the components that provide a service, the ones of the scope
+     * merged with the registered ones.
+     *
+     * @param service The type of the service.
+     * @return The entries in priority order, or null if none.
+     */
+    private List<ComponentEntry> find(Type service) {
+        var base = resolve(service);
+        var head = registered(service);
+        if (head == null) {
+            return base;
+        }
+        var added = new ArrayList<ComponentEntry>();
+        for (var node = head; node != null; node = node.next) {
+            if (visible(node)) {
+                added.add(node.entry);
+            }
+        }
+        if (added.isEmpty()) {
+            return base;
+        }
+        //The nodes are newest first, on the same priority the components of
+        //the scope go first and then the registered ones in order.
+        Collections.reverse(added);
+        var result = new ArrayList<ComponentEntry>(added.size() + (base != null ? base.size() : 0));
+        if (base != null) {
+            result.addAll(base);
+        }
+        result.addAll(added);
+        result.sort(ComponentEntry.BY_PRIORITY);
+        return result;
+    }
+
+    /**
+     * Gets the components of the scope that provide a service, resolving
+     * them from the names of the index the first time.
+     *
+     * @param service The type of the service.
+     * @return The entries of the components, or null if none.
+     */
+    private List<ComponentEntry> resolve(Type service) {
+        var result = types.get(service);
+        if (result == null) {
+            result = List.of();
+            var candidates = map.get(service.getTypeName());
+            if (candidates != null) {
+                var lst = new ArrayList<ComponentEntry>(candidates.size());
+                for (var entry : candidates) {
+                    if (entry.sees(service)) {
+                        lst.add(entry);
+                    }
+                }
+                result = Collections.unmodifiableList(lst);
+            }
+            var previous = types.putIfAbsent(service, result);
+            if (previous != null) {
+                result = previous;
+            }
+        }
+        return result.isEmpty() ? null : result;
     }
 
     /**
@@ -90,23 +263,41 @@ class ServiceMap {
      */
     Class<?> findOne(Type service, Integer priority) {
         if (ClassUtils.rawClass(service).equals(IocContext.class)) {
-            return map.get(ClassUtils.rawClass(service)).get(0);
+            return map.get(IocContext.class.getName()).get(0).resolve();
         }
-        var lst = map.get(service);
-        if (lst == null || lst.isEmpty()) {
-            return null;
+        Class<?> result = null;
+        var best = Integer.MAX_VALUE;
+        var lst = resolve(service);
+        if (lst != null) {
+            for (var entry : lst) {
+                if (isAfter(entry, priority)) {
+                    result = entry.resolve();
+                    if (result != null) {
+                        best = entry.getPriority();
+                        break;
+                    }
+                }
+            }
         }
-        if (priority == null) {
-            return lst.get(0);
-        } else {
-            for (var cls : lst) {
-                var v1 = ClassUtils.findPriority(cls);
-                if (v1 > priority || v1 == Integer.MAX_VALUE) {
-                    return cls;
+        //Without building the merged list, the registered ones only win with
+        //a lower priority, and on the same priority the oldest one wins.
+        var fromScope = result != null;
+        for (var node = registered(service); node != null; node = node.next) {
+            if (visible(node) && isAfter(node.entry, priority)) {
+                var value = node.entry.getPriority();
+                if (result == null || value < best || (value == best && !fromScope)) {
+                    result = node.entry.resolve();
+                    best = value;
+                    fromScope = false;
                 }
             }
         }
-        return null;
+        return result;
+    }
+
+    private static boolean isAfter(ComponentEntry entry, Integer priority) {
+        var v1 = entry.getPriority();
+        return priority == null || v1 > priority || v1 == Integer.MAX_VALUE;
     }
 
     /**
@@ -116,28 +307,60 @@ class ServiceMap {
      * @return true at least one component provides the given service.
      */
     boolean exists(Type service) {
-        return map.containsKey(service);
+        if (resolve(service) != null) {
+            return true;
+        }
+        for (var node = registered(service); node != null; node = node.next) {
+            if (visible(node)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
-     * Finds all components classes by the given service type.
+     * Finds all components classes by the given service type, loading all
+     * of them.
      *
      * @param service The service to lookup
      * @return The list of components that provides the given service if any.
      */
     List<Class<?>> findAll(Type service) {
+        var entries = findEntries(service);
+        if (entries == null) {
+            return null;
+        }
+        var result = new ArrayList<Class<?>>(entries.size());
+        for (var entry : entries) {
+            var cls = entry.resolve();
+            if (cls != null) {
+                result.add(cls);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Finds the entries of all the components by the given service type,
+     * without loading their classes.
+     *
+     * @param service The service to lookup
+     * @return The entries of the components in priority order, or null if no
+     * component provides the service.
+     */
+    List<ComponentEntry> findEntries(Type service) {
         var realService = service;
         if (service instanceof WildcardType) {
             realService = ClassUtils.typeOf((WildcardType) service);
         }
         if (realService != null) {
-            var result = map.get(realService);
+            var result = find(realService);
             if (result == null) {
                 return null;
             }
             return Collections.unmodifiableList(result);
         }
-        return Collections.EMPTY_LIST;
+        return Collections.emptyList();
     }
 
     /**
@@ -160,6 +383,73 @@ class ServiceMap {
         return SERVICES_MAP.get(scope);
     }
 
+    /**
+     * Drops the service maps of the scopes that belong to the given class
+     * loader or have components that belong to it, and the types of the
+     * loader resolved by the other maps.
+     *
+     * @param loader The class loader.
+     */
+    static void unload(ClassLoader loader) {
+        SERVICES_MAP.entrySet().removeIf(e -> ClassUtils.isLoadedBy(e.getKey(), loader)
+                || e.getValue().references(loader));
+        for (var serviceMap : SERVICES_MAP.values()) {
+            serviceMap.types.keySet().removeIf(t -> ComponentEntry.references(t, loader));
+        }
+    }
+
+    /**
+     * Drops all the service maps.
+     */
+    static void clear() {
+        SERVICES_MAP.clear();
+    }
+
+    private boolean references(ClassLoader loader) {
+        for (var component : compMap.values()) {
+            if (component.isLoadedBy(loader)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the components of this map whose classes are already loaded, the
+     * ones of the scope and the ones registered at runtime.
+     *
+     * @return The list of component classes.
+     */
+    List<Class<?>> getLoadedComponents() {
+        var result = new ArrayList<Class<?>>();
+        for (var entry : compMap.values()) {
+            var cls = entry.loaded();
+            if (cls != null) {
+                result.add(cls);
+            }
+        }
+        result.addAll(getRegisteredComponents());
+        return result;
+    }
+
+    /**
+     * Gets the components registered at runtime seen by this map.
+     *
+     * @return The list of component classes.
+     */
+    List<Class<?>> getRegisteredComponents() {
+        if (overlay == null) {
+            return List.of();
+        }
+        var result = new ArrayList<Class<?>>();
+        overlay.components.forEach((cls, node) -> {
+            if (visible(node)) {
+                result.add(cls);
+            }
+        });
+        return result;
+    }
+
     /**
      * Gets all the services provided by a component.
      *
@@ -167,7 +457,23 @@ class ServiceMap {
      * @return The list of service the especified component provides.
      */
     List<Type> getServices(Class<?> component) {
-        return compMap.get(component);
+        var node = overlay != null ? overlay.components.get(component) : null;
+        return visible(node) ? node.services : findServices(component);
+    }
+
+    /**
+     * Determines if a class is a component of this map, of the scope or
+     * registered at runtime.
+     *
+     * @param component The class to look for.
+     * @return true the class is a component, false otherwise.
+     */
+    boolean contains(Class<?> component) {
+        if (overlay != null && visible(overlay.components.get(component))) {
+            return true;
+        }
+        var entry = compMap.get(component.getName());
+        return entry != null && entry.is(component);
     }
 
     /**
@@ -176,7 +482,7 @@ class ServiceMap {
      * @param component The component to search.
      * @return The list of all services the especified component provides.
      */
-    private static List<Type> findServices(Class<?> component) {
+    static List<Type> findServices(Class<?> component) {
         var result = new ArrayList<Type>();
         result.add(Object.class);
         result.add(component);
@@ -233,14 +539,51 @@ class ServiceMap {
     /**
      * Adds a component to a list of components that provides the given service.
      *
-     * @param service   The service provided
+     * @param service   The name of the service provided
      * @param component The component who provides the given services.
      */
-    private static void addComponentToService(Map<Type, List<Class<?>>> servMap, Type service, Class<?> component) {
+    private static void addComponentToService(Map<String, List<ComponentEntry>> servMap, String service,
+                                              ComponentEntry component) {
         var components = servMap.computeIfAbsent(service, k -> new ArrayList<>());
         if (!components.contains(component)) {
             components.add(component);
         }
     }
 
+    /**
+     * The components registered at runtime in a context, shared by all the
+     * versions of its service map.
+     */
+    private static final class Overlay {
+        /**
+         * The registered components by service, newest first.
+         */
+        private final Map<Type, Node> services = new ConcurrentHashMap<>();
+
+        /**
+         * The registered components by class.
+         */
+        private final Map<Class<?>, Node> components = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * A registered component in the list of a service, the nodes are never
+     * modified so older lists stay valid.
+     */
+    private static final class Node {
+        private final ComponentEntry entry;
+
+        private final List<Type> services;
+
+        private final int version;
+
+        private final Node next;
+
+        private Node(ComponentEntry entry, List<Type> services, int version, Node next) {
+            this.entry = entry;
+            this.services = services;
+            this.version = version;
+            this.next = next;
+        }
+    }
 }
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.container;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records the components a process resolves during its first seconds and
+ * preloads them in later starts.
+ * <p>
+ * When the {@value #RECORD_PROPERTY} system property gives a file, the
+ * components looked up in any context during the first
+ * {@value #RECORD_SECONDS_PROPERTY} seconds, ten by default, are saved to it
+ * in the order they were first resolved. The file is written by a background
+ * thread when the time is over, so the lookups never wait for it, or when
+ * the metadata of the contexts is reset or the process ends.
+ * <p>
+ * When the {@value #PRELOAD_PROPERTY} system property gives a recorded file,
+ * a background thread loads the recorded classes in the same order and reads
+ * their metadata while the application starts, once per file and process.
+ * With {@value #INSTANTIATE_PROPERTY} set to true the components of the root
+ * context are also created.
+ *
+ * @author Gilberto Vento
+ */
+final class StartupProfile {
+    private static final Logger LOG = Logger.getLogger(StartupProfile.class.getName());
+
+    /**
+     * The system property with the file to record the startup profile to.
+     */
+    static final String RECORD_PROPERTY = "shrike.startup.record";
+
+    /**
+     * The system property with the seconds to record after the first
+     * context is created.
+     */
+    static final String RECORD_SECONDS_PROPERTY = "shrike.startup.record.seconds";
+
+    /**
+     * The system property with the recorded file to preload.
+     */
+    static final String PRELOAD_PROPERTY = "shrike.startup.preload";
+
+    /**
+     * The system property to also create the preloaded components.
+     */
+    static final String INSTANTIATE_PROPERTY = "shrike.startup.preload.instantiate";
+
+    private static final long DEFAULT_RECORD_SECONDS = 10;
+
+    /**
+     * The profile being recorded, if any.
+     */
+    private static volatile StartupProfile recording;
+
+    /**
+     * Guards the start and the end of the recording.
+     */
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    /**
+     * The files already preloaded by this process.
+     */
+    private static final Set<String> PRELOADED = ConcurrentHashMap.newKeySet();
+
+    private final Path file;
+
+    private final long deadline;
+
+    private final Set<String> seen;
+
+    private final Queue<String> order;
+
+    private final AtomicBoolean saved;
+
+    private final AtomicBoolean expired;
+
+    private final Thread hook;
+
+    private StartupProfile(Path file, long seconds) {
+        this.file = file;
+        this.deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        this.seen = ConcurrentHashMap.newKeySet();
+        this.order = new ConcurrentLinkedQueue<>();
+        this.saved = new AtomicBoolean();
+        this.expired = new AtomicBoolean();
+        this.hook = new Thread(this::save, "shrike-startup-record");
+    }
+
+    /**
+     * Starts the recording or the preloading given by the system
+     * properties, called when a root context is created.
+     *
+     * @param root The root context.
+     */
+    static void start(ContextImpl<?> root) {
+        var recordFile = System.getProperty(RECORD_PROPERTY);
+        if (recordFile != null && !recordFile.isBlank() && recording == null) {
+            startRecording(Paths.get(recordFile));
+        }
+        var preloadFile = System.getProperty(PRELOAD_PROPERTY);
+        if (preloadFile != null && !preloadFile.isBlank() && PRELOADED.add(preloadFile)) {
+            var instantiate = Boolean.getBoolean(INSTANTIATE_PROPERTY);
+            var thread = new Thread(() -> preload(Paths.get(preloadFile), root, instantiate), "shrike-preload");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private static void startRecording(Path file) {
+        LOCK.lock();
+        try {
+            if (recording == null) {
+                var profile = new StartupProfile(file, Long.getLong(RECORD_SECONDS_PROPERTY, DEFAULT_RECORD_SECONDS));
+                Runtime.getRuntime().addShutdownHook(profile.hook);
+                recording = profile;
+            }
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Records a component being resolved, it does nothing when there is no
+     * recording.
+     *
+     * @param cls The class of the component.
+     */
+    static void record(Class<?> cls) {
+        var current = recording;
+        if (current != null) {
+            current.add(cls);
+        }
+    }
+
+    /**
+     * Saves the current recording and stops it, and forgets the preloaded
+     * files.
+     */
+    static void stop() {
+        var current = recording;
+        if (current != null) {
+            current.save();
+        }
+        PRELOADED.clear();
+    }
+
+    private void add(Class<?> cls) {
+        if (System.nanoTime() - deadline > 0) {
+            expire();
+            return;
+        }
+        var name = cls.getName();
+        if (seen.add(name)) {
+            order.add(name);
+        }
+    }
+
+    /**
+     * Stops the recording once the time is over and writes the file in a
+     * background thread, instead of the thread of the lookup.
+     */
+    private void expire() {
+        if (expired.compareAndSet(false, true)) {
+            detach();
+            var thread = new Thread(this::save, "shrike-startup-save");
+            thread.start();
+        }
+    }
+
+    private void detach() {
+        LOCK.lock();
+        try {
+            if (recording == this) {
+                recording = null;
+            }
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    private void save() {
+        if (!saved.compareAndSet(false, true)) {
+            return;
+        }
+        detach();
+        if (Thread.currentThread() != hook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(hook);
+            } catch (IllegalStateException ex) {
+                //The process is already ending.
+            }
+        }
+        try {
+            var dir = file.toAbsolutePath().getParent();
+            if (dir != null) {
+                Files.createDirectories(dir);
+            }
+            Files.write(file, new ArrayList<>(order), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "The startup profile " + file + " cannot be written.", ex);
+        }
+    }
+
+    /**
+     * Loads the classes of a recorded profile in order, the classes that are
+     * no longer available are skipped.
+     */
+    private static void preload(Path file, ContextImpl<?> root, boolean instantiate) {
+        List<String> names;
+        try {
+            names = Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "The startup profile " + file + " cannot be read.", ex);
+            return;
+        }
+        var loader = StartupProfile.class.getClassLoader();
+        for (var name : names) {
+            if (name.isBlank()) {
+                continue;
+            }
+            try {
+                var cls = Class.forName(name.trim(), false, loader);
+                if (root.existsComponent(cls)) {
+                    //Reads the members of the component with reflection.
+                    root.findCache(cls);
+                    if (instantiate && !ClassUtils.isPrototype(cls) && !ClassUtils.isPooled(cls)) {
+                        root.createComponent(cls);
+                    }
+                }
+            } catch (ClassNotFoundException | LinkageError ex) {
+                LOG.log(Level.FINE, "The class {0} of the startup profile cannot be loaded.", name);
+            } catch (IllegalStateException ex) {
+                //The root context was closed.
+                return;
+            } catch (RuntimeException ex) {
+                LOG.log(Level.WARNING, ex.getMessage(), ex);
+            }
+        }
+    }
+}
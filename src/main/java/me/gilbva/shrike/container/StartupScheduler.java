@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.container;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Creates a group of components in parallel. Every component is scheduled
+ * only after the components it injects are fully created, including their
+ * asynchronous init methods, so independent parts of the dependency graph are
+ * created at the same time while
+ * {@link me.gilbva.shrike.annotations.ComponentInit} methods still run after
+ * the ones of their dependencies.
+ *
+ * @author Gilberto Vento
+ */
+class StartupScheduler {
+    private static final Logger LOG = Logger.getLogger(StartupScheduler.class.getName());
+
+    private final ContextImpl<?> context;
+
+    private final ServiceMap serviceMap;
+
+    private final Container container;
+
+    StartupScheduler(ContextImpl<?> context, ServiceMap serviceMap, Container container) {
+        this.context = context;
+        this.serviceMap = serviceMap;
+        this.container = container;
+    }
+
+    /**
+     * Schedules the creation of the given components in the executor.
+     *
+     * @param components The components to create, in priority order.
+     * @param executor   The executor to create the components in.
+     * @return A future that completes when all the components are created and
+     * initialized.
+     */
+    CompletableFuture<Void> schedule(Collection<Class<?>> components, Executor executor) {
+        var pending = new LinkedHashSet<>(components);
+        var futures = new HashMap<Class<?>, CompletableFuture<Void>>();
+        for (var cls : pending) {
+            schedule(cls, pending, futures, new HashSet<>(), executor);
+        }
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]));
+    }
+
+    private CompletableFuture<Void> schedule(Class<?> cls, Set<Class<?>> pending,
+                                             Map<Class<?>, CompletableFuture<Void>> futures,
+                                             Set<Class<?>> visiting, Executor executor) {
+        var future = futures.get(cls);
+        if (future != null) {
+            return future;
+        }
+        visiting.add(cls);
+        var dependencies = new ArrayList<CompletableFuture<Void>>();
+        for (var dependency : findDependencies(cls)) {
+            //Back edges of circular dependencies are ignored.
+            if (pending.contains(dependency) && !visiting.contains(dependency)) {
+                dependencies.add(schedule(dependency, pending, futures, visiting, executor));
+            }
+        }
+        visiting.remove(cls);
+        future = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture[0]))
+                .thenComposeAsync(v -> create(cls), executor);
+        futures.put(cls, future);
+        return future;
+    }
+
+    private CompletableFuture<Void> create(Class<?> cls) {
+        try {
+            return container.createAsync(cls).thenApply(obj -> null);
+        } catch (RuntimeException ex) {
+            LOG.log(Level.SEVERE, ex.getMessage(), ex);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Finds the components that will be injected in the given component.
+     *
+     * @param cls The class of the component.
+     * @return The list of components the given component depends on.
+     */
+    private List<Class<?>> findDependencies(Class<?> cls) {
+        var result = new ArrayList<Class<?>>();
+        var cache = context.findCache(cls);
+        var points = new ArrayList<>(cache.getConstructorPoints());
+        points.addAll(cache.getInjectionPoints());
+        for (var point : points) {
+            var service = point.getService();
+            if (ClassUtils.isMultiple(service)) {
+                var components = serviceMap.findAll(ClassUtils.multipleType(service));
+                if (components != null) {
+                    result.addAll(components);
+                }
+            } else if (ClassUtils.rawClass(service) != null) {
+                var component = serviceMap.findOne(service, point.getPriority());
+                if (component != null) {
+                    result.add(component);
+                }
+            }
+        }
+        return result;
+    }
+}
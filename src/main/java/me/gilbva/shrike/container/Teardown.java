@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.container;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the components of a context that have
+ * {@link me.gilbva.shrike.annotations.ComponentDestroy} methods, in the order
+ * in witch they finished their initialization, and calls those methods in the
+ * reverse order when the context is closed.
+ * <p>
+ * This class is also the cleaning action registered for the context, so it
+ * must never hold a reference to the context or its container, not even
+ * through the components it keeps. The components that reference the context
+ * go to a teardown owned by the container, which is only run on close, and
+ * the cleaning action is a best effort for the rest.
+ *
+ * @author Gilberto Vento
+ */
+class Teardown implements Runnable {
+    private static final Logger LOG = Logger.getLogger(Teardown.class.getName());
+
+    private final ScopeCache cache;
+
+    private final Deque<Object> instances;
+
+    private final AtomicBoolean done;
+
+    Teardown(ScopeCache cache) {
+        this.cache = cache;
+        this.instances = new ConcurrentLinkedDeque<>();
+        this.done = new AtomicBoolean();
+    }
+
+    /**
+     * Registers a component that finished its initialization.
+     *
+     * @param obj The instance of the component.
+     */
+    void add(Object obj) {
+        instances.addFirst(obj);
+    }
+
+    /**
+     * Calls the destroy methods of the registered components whose classes
+     * belong to the given class loader and stops keeping them.
+     *
+     * @param loader The class loader.
+     */
+    void unload(ClassLoader loader) {
+        var removed = new ArrayList<Object>();
+        instances.removeIf(obj -> ClassUtils.isLoadedBy(obj.getClass(), loader) && removed.add(obj));
+        for (var obj : removed) {
+            destroy(cache, obj);
+        }
+    }
+
+    /**
+     * Calls the destroy methods of the registered components, the last
+     * initialized first. Only the first call has effect.
+     */
+    @Override
+    public void run() {
+        if (!done.compareAndSet(false, true)) {
+            return;
+        }
+        Object obj;
+        while ((obj = instances.pollFirst()) != null) {
+            destroy(cache, obj);
+        }
+    }
+
+    /**
+     * Calls the destroy methods of a component.
+     *
+     * @param cache The cache of the scope of the component.
+     * @param obj   The instance of the component.
+     */
+    static void destroy(ScopeCache cache, Object obj) {
+        var currentClass = obj.getClass();
+        while (!currentClass.equals(Object.class)) {
+            for (var method : cache.getCache(currentClass).getDestroys()) {
+                try {
+                    method.invoke(obj);
+                } catch (SecurityException | IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
+                    LOG.log(Level.SEVERE, ex.getMessage(), ex);
+                }
+            }
+            currentClass = currentClass.getSuperclass();
+        }
+    }
+}
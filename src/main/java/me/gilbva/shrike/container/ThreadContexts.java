@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.container;
+
+import java.lang.ref.Cleaner;
+import java.lang.reflect.Type;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import me.gilbva.shrike.scope.ThreadScope;
+
+/**
+ * Holds the contexts of the {@link ThreadScope} of a root context, one for
+ * every thread that looked up a thread scoped component. The context of each
+ * thread is kept in a {@link ThreadLocal}, so threads never contend on their
+ * lookups, and it is registered to be closed when the thread is garbage
+ * collected, when the thread releases it or when the root context is closed.
+ *
+ * @author Gilberto Vento
+ */
+final class ThreadContexts {
+    private final ContextImpl<?> root;
+
+    private final ThreadLocal<Binding> current;
+
+    /**
+     * The contexts of all the threads, for the root context to close them.
+     */
+    private final Set<Binding> registry;
+
+    private volatile boolean closed;
+
+    ThreadContexts(ContextImpl<?> root) {
+        this.root = root;
+        this.current = new ThreadLocal<>();
+        this.registry = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Determines if the given service is provided by a thread scoped
+     * component.
+     *
+     * @param service The type of the service.
+     * @return true the service must be looked up in the context of the
+     * current thread, false otherwise.
+     */
+    static boolean provides(Type service) {
+        if (ClassUtils.rawClass(service) == null || ClassUtils.isMultiple(service)) {
+            return false;
+        }
+        var serviceMap = ScopeTemplate.findByScope(ThreadScope.class).getServiceMap();
+        return serviceMap != null && serviceMap.findOne(service) != null;
+    }
+
+    /**
+     * Gets the context of the current thread, creating it the first time.
+     *
+     * @return The thread scoped context of the current thread.
+     */
+    ContextImpl<ThreadScope> current() {
+        var binding = current.get();
+        if (binding == null) {
+            if (closed) {
+                throw new IllegalStateException("The context is closed.");
+            }
+            var thread = Thread.currentThread();
+            binding = new Binding(root.createThreadContext(new ThreadScope(thread)));
+            binding.cleanable = ContextImpl.CLEANER.register(thread, binding);
+            registry.add(binding);
+            current.set(binding);
+        }
+        return binding.context;
+    }
+
+    /**
+     * Closes the context of the current thread if it has one, the next
+     * lookup of a thread scoped component creates a new one.
+     */
+    void release() {
+        var binding = current.get();
+        if (binding != null) {
+            current.remove();
+            binding.cleanable.clean();
+        }
+    }
+
+    /**
+     * Closes the contexts of all the threads.
+     */
+    void close() {
+        closed = true;
+        for (var binding : registry) {
+            binding.cleanable.clean();
+        }
+        current.remove();
+    }
+
+    /**
+     * The context of a thread, it is also the cleaning action registered for
+     * the thread, so it must never hold a reference to the thread.
+     */
+    private final class Binding implements Runnable {
+        private final ContextImpl<ThreadScope> context;
+
+        private volatile Cleaner.Cleanable cleanable;
+
+        private Binding(ContextImpl<ThreadScope> context) {
+            this.context = context;
+        }
+
+        @Override
+        public void run() {
+            registry.remove(this);
+            context.close();
+        }
+    }
+}
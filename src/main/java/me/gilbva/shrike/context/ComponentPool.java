@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.context;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded pool of instances of a {@link me.gilbva.shrike.annotations.Pooled}
+ * component. Instances must be returned after use, the easiest way is with a
+ * lease in a try-with-resources block.
+ * <pre>
+ * &#64;Inject
+ * private ComponentPool&lt;MyCodec&gt; codecs;
+ * ....
+ * try (var lease = codecs.borrow()) {
+ *     lease.get().encode(data);
+ * }
+ * </pre>
+ *
+ * @param <T> The type of the component.
+ * @author Gilberto Vento
+ */
+public interface ComponentPool<T> {
+    /**
+     * Takes an instance from the pool, waiting for one to be returned if all
+     * of them are in use.
+     *
+     * @return The instance, or null if the component cannot be created.
+     */
+    T acquire();
+
+    /**
+     * Takes an instance from the pool, waiting up to the given time for one
+     * to be returned if all of them are in use.
+     *
+     * @param timeout The max time to wait.
+     * @param unit    The unit of the timeout.
+     * @return The instance, or null if the time elapsed or the component
+     * cannot be created.
+     * @throws InterruptedException If the thread is interrupted while
+     *                              waiting.
+     */
+    T acquire(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Returns an instance to the pool, if the context is closed the instance
+     * is destroyed instead.
+     *
+     * @param instance The instance taken from this pool.
+     * @throws IllegalArgumentException If the instance was not taken from
+     *                                  this pool or it was already returned.
+     */
+    void release(T instance);
+
+    /**
+     * Takes an instance from the pool in the same way as {@link #acquire()},
+     * the instance is returned when the lease is closed.
+     *
+     * @return The lease of the instance.
+     */
+    Lease<T> borrow();
+
+    /**
+     * The max amount of instances of the pool.
+     *
+     * @return The size of the pool.
+     */
+    int getMaxSize();
+
+    /**
+     * The amount of instances created by the pool.
+     *
+     * @return The amount of instances, in use or idle.
+     */
+    int getCreated();
+
+    /**
+     * The amount of instances currently taken from the pool.
+     *
+     * @return The amount of instances in use.
+     */
+    int getInUse();
+
+    /**
+     * The amount of instances taken from the pool since it was created.
+     *
+     * @return The total amount of acquisitions.
+     */
+    long getAcquireCount();
+
+    /**
+     * The time threads spent waiting for an instance to be returned.
+     *
+     * @return The total waiting time in nanoseconds.
+     */
+    long getTotalWaitNanos();
+
+    /**
+     * The longest time a thread waited for an instance to be returned.
+     *
+     * @return The max waiting time in nanoseconds.
+     */
+    long getMaxWaitNanos();
+
+    /**
+     * An instance taken from a pool, closing the lease returns the instance.
+     *
+     * @param <T> The type of the component.
+     */
+    interface Lease<T> extends AutoCloseable {
+        /**
+         * Gets the instance.
+         *
+         * @return The instance, or null if the component cannot be created.
+         */
+        T get();
+
+        /**
+         * Returns the instance to the pool, only the first call has effect.
+         */
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.context;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Callable;
+
+/**
+ * Binds an {@link IocContext} to the task that is running in the current
+ * thread, so {@link me.gilbva.shrike.Shrike} lookups made by the task, or by
+ * any code it calls, resolve against that context instead of the application
+ * context. Bindings can be nested, the innermost one is used.
+ * <p>
+ * When the running JVM provides {@literal java.lang.ScopedValue} the binding
+ * is a scoped value, that is cheap to inherit and does not need to be cleaned
+ * up, which suits a virtual thread per request. On older JVMs the binding is
+ * kept in a {@link ThreadLocal} that is restored when the task ends.
+ * <pre>
+ * try (var request = Shrike.createChild(new RequestScope())) {
+ *     ContextBinding.run(request, () -&gt; handle(req));
+ * }
+ * </pre>
+ *
+ * @author Gilberto Vento
+ */
+public final class ContextBinding {
+    /**
+     * The scoped value, or null when the JVM does not support them.
+     */
+    private static final Object SCOPED;
+
+    private static final MethodHandle WHERE;
+
+    private static final MethodHandle RUN;
+
+    private static final MethodHandle IS_BOUND;
+
+    private static final MethodHandle GET;
+
+    private static final ThreadLocal<IocContext<?>> LOCAL = new ThreadLocal<>();
+
+    static {
+        Object scoped = null;
+        MethodHandle where = null;
+        MethodHandle run = null;
+        MethodHandle isBound = null;
+        MethodHandle get = null;
+        try {
+            var lookup = MethodHandles.publicLookup();
+            var scopedCls = Class.forName("java.lang.ScopedValue");
+            var carrierCls = Class.forName("java.lang.ScopedValue$Carrier");
+            var newInstance = lookup.findStatic(scopedCls, "newInstance", MethodType.methodType(scopedCls));
+            where = lookup.findStatic(scopedCls, "where", MethodType.methodType(carrierCls, scopedCls, Object.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+            run = lookup.findVirtual(carrierCls, "run", MethodType.methodType(void.class, Runnable.class))
+                    .asType(MethodType.methodType(void.class, Object.class, Runnable.class));
+            isBound = lookup.findVirtual(scopedCls, "isBound", MethodType.methodType(boolean.class))
+                    .asType(MethodType.methodType(boolean.class, Object.class));
+            get = lookup.findVirtual(scopedCls, "get", MethodType.methodType(Object.class))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            scoped = newInstance.invoke();
+            //Scoped values may be a preview feature that is not enabled, they
+            //are used only if binding, reading and unbinding actually work.
+            var probe = new Object[1];
+            var value = scoped;
+            var bound = isBound;
+            var read = get;
+            var unboundBefore = !(boolean) isBound.invokeExact(scoped);
+            run.invokeExact(where.invokeExact(scoped, (Object) "probe"), (Runnable) () ->
+            {
+                try {
+                    probe[0] = (boolean) bound.invokeExact(value) ? read.invokeExact(value) : null;
+                } catch (Throwable ex) {
+                    probe[0] = null;
+                }
+            });
+            var unboundAfter = !(boolean) isBound.invokeExact(scoped);
+            if (!unboundBefore || !unboundAfter || !"probe".equals(probe[0])) {
+                scoped = null;
+            }
+        } catch (Throwable ex) {
+            scoped = null;
+        }
+        SCOPED = scoped;
+        WHERE = where;
+        RUN = run;
+        IS_BOUND = isBound;
+        GET = get;
+    }
+
+    private ContextBinding() {
+    }
+
+    /**
+     * Determines if the bindings use scoped values.
+     *
+     * @return true the bindings are scoped values, false if they are thread
+     * locals.
+     */
+    public static boolean isScopedValue() {
+        return SCOPED != null;
+    }
+
+    /**
+     * Gets the innermost context bound to the current task.
+     *
+     * @return The bound context, or null if there is none.
+     */
+    public static IocContext<?> current() {
+        if (SCOPED == null) {
+            return LOCAL.get();
+        }
+        try {
+            if (!(boolean) IS_BOUND.invokeExact(SCOPED)) {
+                return null;
+            }
+            Object context = GET.invokeExact(SCOPED);
+            return (IocContext<?>) context;
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Runs a task with the given context bound to it.
+     *
+     * @param context The context to bind.
+     * @param task    The task to run.
+     */
+    public static void run(IocContext<?> context, Runnable task) {
+        if (SCOPED == null) {
+            var previous = LOCAL.get();
+            LOCAL.set(context);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    LOCAL.remove();
+                } else {
+                    LOCAL.set(previous);
+                }
+            }
+            return;
+        }
+        try {
+            RUN.invokeExact(WHERE.invokeExact(SCOPED, (Object) context), task);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Calls a task with the given context bound to it.
+     *
+     * @param <T>     The type of the result.
+     * @param context The context to bind.
+     * @param task    The task to call.
+     * @return The result of the task.
+     * @throws Exception If the task fails.
+     */
+    public static <T> T call(IocContext<?> context, Callable<T> task) throws Exception {
+        var result = new Object[1];
+        var error = new Exception[1];
+        run(context, () ->
+        {
+            try {
+                result[0] = task.call();
+            } catch (Exception ex) {
+                error[0] = ex;
+            }
+        });
+        if (error[0] != null) {
+            throw error[0];
+        }
+        return (T) result[0];
+    }
+}
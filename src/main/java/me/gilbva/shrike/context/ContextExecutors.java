@@ -0,0 +1,313 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.context;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Wrappers that carry the context bound with {@link ContextBinding} from the
+ * thread that submits a task to the thread that runs it, so lookups made by
+ * asynchronous code resolve against the same scoped components as the code
+ * that started it.
+ * <p>
+ * The context is captured when the task is submitted. Tasks submitted without
+ * a bound context are passed as they are, without any wrapping. The
+ * asynchronous stages of a {@link CompletableFuture} are submitted by the
+ * thread that completes the previous stage, so the futures created by
+ * {@link #supplyAsync(Supplier, Executor)}, {@link #runAsync(Runnable, Executor)}
+ * and {@link #propagate(CompletionStage)} capture the context when each
+ * dependent stage is created instead, in any executor.
+ * <pre>
+ * ExecutorService workers = ContextExecutors.wrap(Executors.newFixedThreadPool(8));
+ * ContextBinding.run(request, () -&gt;
+ *     ContextExecutors.supplyAsync(() -&gt; Shrike.find(MyRequestComponent.class), workers)
+ *             .thenApplyAsync(comp -&gt; comp.process(), workers));
+ * </pre>
+ *
+ * @author Gilberto Vento
+ */
+public final class ContextExecutors {
+    private ContextExecutors() {
+    }
+
+    /**
+     * Binds the current context to a task.
+     *
+     * @param task The task to bind.
+     * @return A task that runs the given one with the context that is bound
+     * right now, or the same task if there is no bound context.
+     */
+    public static Runnable capture(Runnable task) {
+        var context = ContextBinding.current();
+        if (context == null) {
+            return task;
+        }
+        return () -> ContextBinding.run(context, task);
+    }
+
+    /**
+     * Binds the current context to a task.
+     *
+     * @param <T>  The type of the result.
+     * @param task The task to bind.
+     * @return A task that calls the given one with the context that is bound
+     * right now, or the same task if there is no bound context.
+     */
+    public static <T> Callable<T> capture(Callable<T> task) {
+        var context = ContextBinding.current();
+        if (context == null) {
+            return task;
+        }
+        return () -> ContextBinding.call(context, task);
+    }
+
+    /**
+     * Wraps an executor so every task runs with the context that was bound
+     * when it was submitted. The stages of a plain {@link CompletableFuture}
+     * are submitted when the previous stage completes, use the futures of
+     * this class to capture the context when the stages are created.
+     *
+     * @param executor The executor to wrap.
+     * @return The context propagating executor.
+     */
+    public static Executor wrap(Executor executor) {
+        if (executor instanceof ContextExecutorService) {
+            return executor;
+        }
+        return task -> executor.execute(capture(task));
+    }
+
+    /**
+     * Wraps an executor service so every task runs with the context that was
+     * bound when it was submitted.
+     *
+     * @param executor The executor service to wrap.
+     * @return The context propagating executor service.
+     */
+    public static ExecutorService wrap(ExecutorService executor) {
+        if (executor instanceof ContextExecutorService) {
+            return executor;
+        }
+        return new ContextExecutorService(executor);
+    }
+
+    /**
+     * Same as {@link CompletableFuture#supplyAsync(Supplier, Executor)} but
+     * the supplier runs with the current context.
+     *
+     * @param <T>      The type of the result.
+     * @param supplier The supplier to run.
+     * @param executor The executor to run the supplier in.
+     * @return The new future, its asynchronous stages run with the context
+     * bound when they are created.
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        return new ContextFuture<T>().completeAsync(supplier, wrap(executor));
+    }
+
+    /**
+     * Same as {@link CompletableFuture#runAsync(Runnable, Executor)} but the
+     * task runs with the current context.
+     *
+     * @param task     The task to run.
+     * @param executor The executor to run the task in.
+     * @return The new future, its asynchronous stages run with the context
+     * bound when they are created.
+     */
+    public static CompletableFuture<Void> runAsync(Runnable task, Executor executor) {
+        return new ContextFuture<Void>().completeAsync(() -> {
+            task.run();
+            return null;
+        }, wrap(executor));
+    }
+
+    /**
+     * Creates a future that completes with a stage created outside of the
+     * context, like the future of an IO operation, so its asynchronous stages
+     * run with the context bound when they are created.
+     *
+     * @param <T>   The type of the result.
+     * @param stage The stage to follow.
+     * @return The new future.
+     */
+    public static <T> CompletableFuture<T> propagate(CompletionStage<T> stage) {
+        var result = new ContextFuture<T>();
+        stage.whenComplete((value, ex) -> {
+            if (ex != null) {
+                result.completeExceptionally(ex);
+            } else {
+                result.complete(value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Binds an executor to the current context.
+     *
+     * @param executor The executor to bind.
+     * @return An executor that runs every task with the context bound right
+     * now, or the same executor if there is no bound context.
+     */
+    private static Executor bind(Executor executor) {
+        var context = ContextBinding.current();
+        if (context == null) {
+            return executor;
+        }
+        return task -> executor.execute(() -> ContextBinding.run(context, task));
+    }
+
+    /**
+     * A future whose asynchronous stages capture the context when they are
+     * created, not when the previous stage completes. The dependent stages
+     * are futures of this class too.
+     */
+    private static final class ContextFuture<T> extends CompletableFuture<T> {
+        @Override
+        public <U> CompletableFuture<U> newIncompleteFuture() {
+            return new ContextFuture<>();
+        }
+
+        @Override
+        public Executor defaultExecutor() {
+            return bind(super.defaultExecutor());
+        }
+
+        @Override
+        public <U> CompletableFuture<U> thenApplyAsync(Function<? super T, ? extends U> fn, Executor executor) {
+            return super.thenApplyAsync(fn, bind(executor));
+        }
+
+        @Override
+        public CompletableFuture<Void> thenAcceptAsync(Consumer<? super T> action, Executor executor) {
+            return super.thenAcceptAsync(action, bind(executor));
+        }
+
+        @Override
+        public CompletableFuture<Void> thenRunAsync(Runnable action, Executor executor) {
+            return super.thenRunAsync(action, bind(executor));
+        }
+
+        @Override
+        public <U, V> CompletableFuture<V> thenCombineAsync(CompletionStage<? extends U> other,
+                BiFunction<? super T, ? super U, ? extends V> fn, Executor executor) {
+            return super.thenCombineAsync(other, fn, bind(executor));
+        }
+
+        @Override
+        public <U> CompletableFuture<Void> thenAcceptBothAsync(CompletionStage<? extends U> other,
+                BiConsumer<? super T, ? super U> action, Executor executor) {
+            return super.thenAcceptBothAsync(other, action, bind(executor));
+        }
+
+        @Override
+        public CompletableFuture<Void> runAfterBothAsync(CompletionStage<?> other, Runnable action,
+                Executor executor) {
+            return super.runAfterBothAsync(other, action, bind(executor));
+        }
+
+        @Override
+        public <U> CompletableFuture<U> applyToEitherAsync(CompletionStage<? extends T> other,
+                Function<? super T, U> fn, Executor executor) {
+            return super.applyToEitherAsync(other, fn, bind(executor));
+        }
+
+        @Override
+        public CompletableFuture<Void> acceptEitherAsync(CompletionStage<? extends T> other,
+                Consumer<? super T> action, Executor executor) {
+            return super.acceptEitherAsync(other, action, bind(executor));
+        }
+
+        @Override
+        public CompletableFuture<Void> runAfterEitherAsync(CompletionStage<?> other, Runnable action,
+                Executor executor) {
+            return super.runAfterEitherAsync(other, action, bind(executor));
+        }
+
+        @Override
+        public <U> CompletableFuture<U> thenComposeAsync(Function<? super T, ? extends CompletionStage<U>> fn,
+                Executor executor) {
+            return super.thenComposeAsync(fn, bind(executor));
+        }
+
+        @Override
+        public CompletableFuture<T> whenCompleteAsync(BiConsumer<? super T, ? super Throwable> action,
+                Executor executor) {
+            return super.whenCompleteAsync(action, bind(executor));
+        }
+
+        @Override
+        public <U> CompletableFuture<U> handleAsync(BiFunction<? super T, Throwable, ? extends U> fn,
+                Executor executor) {
+            return super.handleAsync(fn, bind(executor));
+        }
+    }
+
+    /**
+     * An executor service that captures the context of every task, all the
+     * submit and invoke methods end up calling execute.
+     */
+    private static final class ContextExecutorService extends AbstractExecutorService {
+        private final ExecutorService delegate;
+
+        private ContextExecutorService(ExecutorService delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            delegate.execute(capture(command));
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
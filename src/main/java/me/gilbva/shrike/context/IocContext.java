@@ -22,6 +22,12 @@ import me.gilbva.shrike.scope.Scope;
 
 import java.io.PrintWriter;
 import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Stream;
 
 /**
  * Represents a context in witch components are managed. This interface is mean
@@ -35,7 +41,7 @@ import java.lang.reflect.Type;
  * @param <S> The type for the scope class for this context.
  * @author Gilberto Vento
  */
-public interface IocContext<S extends Scope> {
+public interface IocContext<S extends Scope> extends AutoCloseable {
     /**
      * Gets the scope of the current context.
      *
@@ -82,6 +88,44 @@ public interface IocContext<S extends Scope> {
      */
     <T> T findNext(Class<T> service, int priority);
 
+    /**
+     * This method finds the highest priority component that provides the given
+     * service without blocking the calling thread. If the component already
+     * exists the returned future is already completed, otherwise the component
+     * is created in the common fork join pool.
+     * <p>
+     * The returned future may be cancelled or limited with
+     * {@link CompletableFuture#orTimeout(long, java.util.concurrent.TimeUnit)}
+     * without affecting the creation of the component, that will still be
+     * available for other lookups.
+     *
+     * @param <T>     The generic type of the class of the service that this method
+     *                should find.
+     * @param service The class that represents the service that this method
+     *                must find.
+     * @return A future with an object that extends or implement the class of the
+     * service provided, or null if no component provides this services in the
+     * context.
+     */
+    <T> CompletableFuture<T> findAsync(Class<T> service);
+
+    /**
+     * This method finds the highest priority component that provides the given
+     * service without blocking the calling thread, in the same way as
+     * {@link #findAsync(Class)} but creating the component in the given
+     * executor.
+     *
+     * @param <T>      The generic type of the class of the service that this method
+     *                 should find.
+     * @param service  The class that represents the service that this method
+     *                 must find.
+     * @param executor The executor to create the component in.
+     * @return A future with an object that extends or implement the class of the
+     * service provided, or null if no component provides this services in the
+     * context.
+     */
+    <T> CompletableFuture<T> findAsync(Class<T> service, Executor executor);
+
     /**
      * This method finds all the components that provides the given service.
      * <p>
@@ -96,6 +140,34 @@ public interface IocContext<S extends Scope> {
      */
     <T> T[] findAll(Class<T> service);
 
+    /**
+     * This method finds all the components that provides the given service
+     * lazily, the components are created one by one in priority order only as
+     * the stream advances, so stopping the stream early, for example with
+     * {@link Stream#findFirst()}, leaves the rest of the components
+     * unconstructed.
+     * <p>
+     * The same behavior is available for injection by declaring a field of
+     * type {@link Iterable} of the service.
+     *
+     * @param <T>     The generic type of the class of the service that this method
+     *                should find.
+     * @param service The class that represents the service that this method
+     *                must find.
+     * @return A lazy ordered stream of the components that provide the service.
+     */
+    <T> Stream<T> stream(Class<T> service);
+
+    /**
+     * This method finds all the components that provides the given generic
+     * service lazily, in the same way as {@link #stream(Class)}.
+     *
+     * @param service The {@link java.lang.reflect.Type} that represents the
+     *                service that this method must find.
+     * @return A lazy ordered stream of the components that provide the service.
+     */
+    Stream<Object> streamGeneric(Type service);
+
     /**
      * This method finds the highest priority component that provides the given
      * generic service.
@@ -108,6 +180,31 @@ public interface IocContext<S extends Scope> {
      */
     Object findGeneric(Type service);
 
+    /**
+     * This method finds the highest priority component that provides the given
+     * generic service without blocking the calling thread, in the same way as
+     * {@link #findAsync(Class)}.
+     *
+     * @param service The {@link java.lang.reflect.Type} that represents the
+     *                service that this method must find.
+     * @return A future with an object that extends or implement the service
+     * provided, or null if no component provides this services in the context.
+     */
+    CompletableFuture<Object> findGenericAsync(Type service);
+
+    /**
+     * This method finds the highest priority component that provides the given
+     * generic service without blocking the calling thread, in the same way as
+     * {@link #findAsync(Class, Executor)}.
+     *
+     * @param service  The {@link java.lang.reflect.Type} that represents the
+     *                 service that this method must find.
+     * @param executor The executor to create the component in.
+     * @return A future with an object that extends or implement the service
+     * provided, or null if no component provides this services in the context.
+     */
+    CompletableFuture<Object> findGenericAsync(Type service, Executor executor);
+
     /**
      * This method finds the component that provides the given generic service
      * with less priority than the priority parameter.
@@ -143,6 +240,181 @@ public interface IocContext<S extends Scope> {
      */
     boolean existsComponent(Class<?> component);
 
+    /**
+     * Gets an injector for the fields of instances of the given class that
+     * are created outside of the container, the dependencies are resolved in
+     * this context. Injectors are cached by class, and the single component
+     * dependencies are resolved only the first time, so injecting many
+     * instances of the same class is cheap.
+     *
+     * @param <T> The type of the instances.
+     * @param cls The class of the instances.
+     * @return The injector bound to this context.
+     */
+    <T> MembersInjector<T> membersInjector(Class<T> cls);
+
+    /**
+     * Injects the {@link Inject} and
+     * {@link me.gilbva.shrike.annotations.InjectNext} fields of an object that
+     * was not created by the container, like a handler instantiated by other
+     * framework or a deserialized command, with the dependencies resolved in
+     * this context. The object is not managed by the context, its init and
+     * destroy methods are not called. The injection of every class is planned
+     * once and cached, so this method is cheap enough to be called for every
+     * request.
+     *
+     * @param instance The object to inject.
+     * @throws IllegalArgumentException If the instance is null.
+     */
+    void injectMembers(Object instance);
+
+    /**
+     * Gets a future that completes when this context is fully initialized,
+     * this is when all the components marked with
+     * {@literal @Component(instantiate = true)} are created and their
+     * asynchronous {@link me.gilbva.shrike.annotations.ComponentInit} methods
+     * have completed.
+     *
+     * @return A future that completes with this context once it is fully
+     * initialized.
+     */
+    CompletableFuture<IocContext<S>> whenInitialized();
+
+    /**
+     * Creates in background the components that provide the given services,
+     * so they are ready by the time they are requested. Components are
+     * created in the given executor, the ones that do not depend on each other
+     * in parallel. Lookups made while a component is being warmed up wait for
+     * that instance instead of creating a new one.
+     *
+     * @param executor The executor to create the components in.
+     * @param services The services to warm up, arrays and collections warm up
+     *                 all the components that provide the inner type.
+     * @return A future that completes when all the components are created and
+     * initialized.
+     */
+    CompletableFuture<Void> warmUp(Executor executor, Type... services);
+
+    /**
+     * Creates a new context of the same scope and with the same parent as
+     * this one, where the lookups of the given services, including the ones
+     * made to inject the components, return the given objects instead of the
+     * components that provide them, like stubs in a test. The new context
+     * shares everything with the contexts of its scope except the instances
+     * of the components, it starts without instances and they are discarded
+     * when it is closed. The scope object is the one of this context, it is
+     * not injected again and it is not called as a listener for the
+     * components of the new context. Lookups of arrays and collections of a
+     * service, and {@link me.gilbva.shrike.annotations.InjectNext} lookups,
+     * are not overridden.
+     *
+     * @param overrides The objects that replace the components, by the
+     *                  service they provide.
+     * @return The new context.
+     * @throws IllegalArgumentException If the overrides are null, or an
+     *                                  object is not an instance of its
+     *                                  service.
+     */
+    IocContext<S> withOverrides(Map<Type, Object> overrides);
+
+    /**
+     * Freezes the wiring of this context, the component selected by the
+     * lookups of every service, including the lookups of all the components
+     * of a service, streams and {@link #findNext(Class, int)}, is resolved
+     * only once and kept in a table, so the next lookups are plain reads of
+     * that table. No component is created, they are still created on their
+     * first lookup.
+     *
+     * @see #freeze(boolean)
+     */
+    void freeze();
+
+    /**
+     * Freezes the wiring of this context in the same way as
+     * {@link #freeze()}. The parent and child contexts are not frozen,
+     * components cannot be registered in a frozen context and freezing a
+     * frozen context does nothing.
+     *
+     * @param failFast true to create all the components of the context
+     *                 except the prototypes before freezing it, blocking until
+     *                 they are created and initialized, and make the lookups of
+     *                 the components that could not be created throw an
+     *                 {@link IllegalStateException}; false to create no
+     *                 component and create them on lookup in the regular way.
+     */
+    void freeze(boolean failFast);
+
+    /**
+     * Registers a component in this context at runtime, like a component
+     * contributed by a plugin loaded after startup. The component provides
+     * the same services as if it were declared with
+     * {@link me.gilbva.shrike.annotations.Component} in the scope of this
+     * context, it is created on the first lookup and sorted by its priority
+     * among the other components of its services. The child contexts see
+     * it when they fall back to this context, the context listeners are not
+     * called for it.
+     * <p>
+     * Lookups running at the same time never see a partially registered
+     * component.
+     *
+     * @param cls The class of the component.
+     * @throws IllegalArgumentException If the class is abstract or it is
+     *                                  already a component of this context.
+     * @throws IllegalStateException    If the context is frozen.
+     */
+    void registerComponent(Class<?> cls);
+
+    /**
+     * Registers an instance created outside of the container as the
+     * component that provides the given service in this context. The
+     * instance is not injected and its init and destroy methods are not
+     * called, it is only found by the given service and it takes precedence
+     * over the components of that service, the same instance or other
+     * instances of its class can be registered for other services.
+     *
+     * @param service  The service provided by the instance.
+     * @param instance The instance.
+     * @throws IllegalArgumentException If the instance is null, it is not an
+     *                                  instance of the service, or an
+     *                                  instance is already registered for
+     *                                  the service in this context.
+     * @throws IllegalStateException    If the context is frozen.
+     */
+    void registerInstance(Type service, Object instance);
+
+    /**
+     * Drops what this context keeps for the classes of the given class
+     * loader, so the loader can be collected once it is discarded: the
+     * components registered with {@link #registerComponent(Class)}, the
+     * instances registered with {@link #registerInstance(Type, Object)}, the
+     * created components of those classes, after calling their destroy
+     * methods, and the cached injection plans of
+     * {@link #injectMembers(Object)}. The shared metadata of the classes is
+     * dropped with {@link me.gilbva.shrike.Shrike#unload(ClassLoader)}.
+     *
+     * @param loader The class loader being discarded.
+     * @throws IllegalArgumentException If the loader is null.
+     */
+    void unload(ClassLoader loader);
+
+    /**
+     * Determines if this context is frozen.
+     *
+     * @return true {@link #freeze(boolean)} was called on this context,
+     * false otherwise.
+     */
+    boolean isFrozen();
+
+    /**
+     * Creates in background all the components of this context, except the
+     * prototype ones, in the same way as {@link #warmUp(Executor, Type...)}.
+     *
+     * @param executor The executor to create the components in.
+     * @return A future that completes when all the components are created and
+     * initialized.
+     */
+    CompletableFuture<Void> warmUpAll(Executor executor);
+
     /**
      * The parent of this context.
      * <p>
@@ -162,6 +434,65 @@ public interface IocContext<S extends Scope> {
      */
     <T extends Scope> IocContext<T> createChild(T scope);
 
+    /**
+     * Gets the pool of a {@link me.gilbva.shrike.annotations.Pooled}
+     * component, in this context or in its parents, the same pool injected in
+     * the fields of type {@link ComponentPool} of the component.
+     *
+     * @param <T> The type of the component.
+     * @param cls The class of the pooled component.
+     * @return The pool of the component, or null if the class is not a
+     * pooled component.
+     */
+    <T> ComponentPool<T> findPool(Class<T> cls);
+
+    /**
+     * Gets an executor managed by the application context, it is created the
+     * first time it is requested, configured by the
+     * {@literal shrike.executor.<name>.type} and
+     * {@literal shrike.executor.<name>.size} system properties, and shut down
+     * when the application context is closed.
+     *
+     * @param name The name of the executor, empty for the default one.
+     * @return The executor with the given name, which is a
+     * {@link ScheduledExecutorService} if it was created as a scheduled
+     * executor.
+     * @see me.gilbva.shrike.annotations.ManagedExecutor
+     */
+    ExecutorService executor(String name);
+
+    /**
+     * Gets a scheduled executor managed by the application context, in the
+     * same way as {@link #executor(String)}.
+     *
+     * @param name The name of the executor, empty for the default one.
+     * @return The scheduled executor with the given name.
+     * @throws IllegalStateException If an executor with that name exists and
+     *                               it is not a scheduled one.
+     */
+    ScheduledExecutorService scheduler(String name);
+
+    /**
+     * Closes the context of the {@link me.gilbva.shrike.scope.ThreadScope} of
+     * the current thread, calling the destroy methods of its components. The
+     * next lookup of a thread scoped component in the thread creates new
+     * instances. Threads of a pool should call this method when they finish a
+     * task if their thread scoped components must not outlive the task.
+     */
+    void releaseThread();
+
+    /**
+     * Closes this context, releasing the instances of its components. The
+     * {@link me.gilbva.shrike.annotations.ComponentDestroy} methods of the
+     * components are called first, in the reverse order of their
+     * initialization. The context cannot be used after it is closed, and the
+     * memory it used to hold its instances may be recycled by other contexts
+     * of the same scope when the {@literal shrike.context.pool.size} system
+     * property is set.
+     */
+    @Override
+    void close();
+
     /**
      * Obtains the class repository associated with this context. that allows to
      * find classes, fields and methods of the components in this context.
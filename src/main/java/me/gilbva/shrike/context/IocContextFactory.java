@@ -31,4 +31,17 @@ public interface IocContextFactory {
      * @return The created IocContext object.
      */
     IocContext<Application> createApplicationContext(Application application);
+
+    /**
+     * Drops the metadata cached for the scopes and components of the given
+     * class loader.
+     *
+     * @param loader The class loader being discarded.
+     */
+    void unload(ClassLoader loader);
+
+    /**
+     * Drops all the metadata cached for the scopes and components.
+     */
+    void reset();
 }
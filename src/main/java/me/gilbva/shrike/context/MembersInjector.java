@@ -0,0 +1,37 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.context;
+
+/**
+ * Injects the {@link me.gilbva.shrike.annotations.Inject} and
+ * {@link me.gilbva.shrike.annotations.InjectNext} fields of instances of a
+ * class, with the dependencies resolved in the context the injector was
+ * obtained from. The single component dependencies are resolved only once,
+ * so an injector is meant to be obtained once and used for many instances.
+ *
+ * @param <T> The type of the instances to inject.
+ * @author Gilberto Vento
+ */
+@FunctionalInterface
+public interface MembersInjector<T> {
+    /**
+     * Injects the fields of the given instance.
+     *
+     * @param instance The instance to inject.
+     */
+    void injectMembers(T instance);
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.processor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedSourceVersion;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+import me.gilbva.shrike.annotations.AssistedFactory;
+
+/**
+ * Annotations processor for the {@link AssistedFactory} annotation, it
+ * generates a component that implements the factory interface. The generated
+ * component calls the constructors of the created objects directly and
+ * injects them with a {@link me.gilbva.shrike.context.MembersInjector}
+ * obtained once from its context.
+ *
+ * @author Gilberto Vento
+ */
+@SupportedAnnotationTypes("me.gilbva.shrike.annotations.AssistedFactory")
+@SupportedSourceVersion(SourceVersion.RELEASE_15)
+public class AssistedFactoryProcessor extends AbstractProcessor {
+    /**
+     * The prefix of the generated implementations.
+     */
+    static final String IMPL_PREFIX = "Shrike";
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (var element : roundEnv.getElementsAnnotatedWith(AssistedFactory.class)) {
+            if (element.getKind() != ElementKind.INTERFACE) {
+                error(element, "@AssistedFactory can only be used on interfaces.");
+                continue;
+            }
+            try {
+                processFactory((TypeElement) element);
+            } catch (IOException ex) {
+                error(element, ex.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private void processFactory(TypeElement factory) throws IOException {
+        if (!factory.getTypeParameters().isEmpty()) {
+            error(factory, "An @AssistedFactory interface cannot be generic.");
+            return;
+        }
+        var methods = new ArrayList<ExecutableElement>();
+        for (var method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(factory))) {
+            if (method.getModifiers().contains(Modifier.ABSTRACT)) {
+                if (!validate(factory, method)) {
+                    return;
+                }
+                methods.add(method);
+            }
+        }
+
+        var pkg = processingEnv.getElementUtils().getPackageOf(factory);
+        var implName = implName(factory);
+        var products = new LinkedHashMap<String, String>();
+        for (var method : methods) {
+            products.putIfAbsent(productClass(method), "injector" + products.size());
+        }
+
+        var source = processingEnv.getFiler().createSourceFile(qualifiedName(pkg, implName), factory);
+        try (var writer = source.openWriter()) {
+            writer.append(generate(factory, pkg, implName, methods, products));
+        }
+    }
+
+    private boolean validate(TypeElement factory, ExecutableElement method) {
+        if (!method.getTypeParameters().isEmpty()) {
+            error(method, "An @AssistedFactory method cannot be generic.");
+            return false;
+        }
+        var returnType = method.getReturnType();
+        if (returnType.getKind() != TypeKind.DECLARED) {
+            error(method, "An @AssistedFactory method must return a class.");
+            return false;
+        }
+        var product = (TypeElement) ((DeclaredType) returnType).asElement();
+        if (product.getKind() != ElementKind.CLASS || product.getModifiers().contains(Modifier.ABSTRACT)) {
+            error(method, "An @AssistedFactory method must return a concrete class.");
+            return false;
+        }
+        if (findConstructor(product, method) == null) {
+            error(method, "The class " + product.getQualifiedName()
+                    + " does not have a non private constructor matching the parameters of the method.");
+            return false;
+        }
+        return true;
+    }
+
+    private ExecutableElement findConstructor(TypeElement product, ExecutableElement method) {
+        var types = processingEnv.getTypeUtils();
+        var parameters = method.getParameters();
+        for (var constructor : ElementFilter.constructorsIn(product.getEnclosedElements())) {
+            if (constructor.getModifiers().contains(Modifier.PRIVATE)
+                    || constructor.getParameters().size() != parameters.size()) {
+                continue;
+            }
+            var matches = true;
+            for (int i = 0; i < parameters.size() && matches; i++) {
+                matches = types.isSameType(types.erasure(constructor.getParameters().get(i).asType()),
+                        types.erasure(parameters.get(i).asType()));
+            }
+            if (matches) {
+                return constructor;
+            }
+        }
+        return null;
+    }
+
+    private String generate(TypeElement factory, PackageElement pkg, String implName,
+                            List<ExecutableElement> methods, Map<String, String> products) {
+        var sb = new StringBuilder();
+        if (!pkg.isUnnamed()) {
+            sb.append("package ").append(pkg.getQualifiedName()).append(";\n\n");
+        }
+        sb.append("@javax.annotation.processing.Generated(\"")
+                .append(AssistedFactoryProcessor.class.getName()).append("\")\n");
+        sb.append("@me.gilbva.shrike.annotations.Component(scope = ")
+                .append(findScope(factory.getAnnotation(AssistedFactory.class))).append(".class)\n");
+        sb.append("public final class ").append(implName).append(" implements ")
+                .append(factory.getQualifiedName()).append(" {\n");
+        sb.append("    @me.gilbva.shrike.annotations.Inject\n");
+        sb.append("    private me.gilbva.shrike.context.IocContext<?> context;\n");
+        for (var product : products.entrySet()) {
+            sb.append("\n    private me.gilbva.shrike.context.MembersInjector<").append(product.getKey())
+                    .append("> ").append(product.getValue()).append(";\n");
+        }
+        sb.append("\n    @me.gilbva.shrike.annotations.ComponentInit\n");
+        sb.append("    private void init() {\n");
+        for (var product : products.entrySet()) {
+            sb.append("        ").append(product.getValue()).append(" = context.membersInjector(")
+                    .append(product.getKey()).append(".class);\n");
+        }
+        sb.append("    }\n");
+        for (var method : methods) {
+            var product = method.getReturnType().toString();
+            var parameters = method.getParameters();
+            sb.append("\n    @Override\n");
+            sb.append("    public ").append(product).append(' ').append(method.getSimpleName()).append('(');
+            for (int i = 0; i < parameters.size(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(parameters.get(i).asType()).append(" arg").append(i);
+            }
+            sb.append(") {\n");
+            sb.append("        var obj = new ").append(product).append('(');
+            for (int i = 0; i < parameters.size(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append("arg").append(i);
+            }
+            sb.append(");\n");
+            sb.append("        ").append(products.get(productClass(method))).append(".injectMembers(obj);\n");
+            sb.append("        return obj;\n");
+            sb.append("    }\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * The simple name of the generated implementation, for nested interfaces
+     * the names of the enclosing classes are included.
+     *
+     * @param factory The factory interface.
+     * @return The name of the implementation class.
+     */
+    static String implName(TypeElement factory) {
+        var name = new StringBuilder(factory.getSimpleName());
+        Element enclosing = factory.getEnclosingElement();
+        while (enclosing != null && enclosing.getKind() != ElementKind.PACKAGE) {
+            name.insert(0, enclosing.getSimpleName() + "_");
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return IMPL_PREFIX + name;
+    }
+
+    private String productClass(ExecutableElement method) {
+        return processingEnv.getTypeUtils().erasure(method.getReturnType()).toString();
+    }
+
+    private static String qualifiedName(PackageElement pkg, String name) {
+        if (pkg.isUnnamed()) {
+            return name;
+        }
+        return pkg.getQualifiedName() + "." + name;
+    }
+
+    private String findScope(AssistedFactory annot) {
+        try {
+            annot.scope();
+        } catch (MirroredTypeException e) {
+            return e.getTypeMirror().toString();
+        }
+        return "me.gilbva.shrike.scope.Application";
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -17,14 +17,28 @@
 package me.gilbva.shrike.processor;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import javax.annotation.processing.SupportedAnnotationTypes;
 import javax.annotation.processing.SupportedSourceVersion;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
 
 import me.gilbva.shrike.utils.ClassListPropertyFile;
 import me.gilbva.shrike.annotations.Component;
+import me.gilbva.shrike.annotations.ComponentDestroy;
+import me.gilbva.shrike.annotations.Pooled;
+import me.gilbva.shrike.annotations.Priority;
+import me.gilbva.shrike.annotations.Profile;
+import me.gilbva.shrike.annotations.RequiresClass;
 
 /**
  * Annotations processor for the {@link Component} annotation.
@@ -48,16 +62,185 @@ public class ComponentProcessor extends ClassListPropertyFile {
     public void processElement(Element element) throws IOException {
         //Get the @Component annotation for the current element.
         var annot = element.getAnnotation(Component.class);
-        String clsName = element.toString();
+        var type = (TypeElement) element;
+        String clsName = binaryName(type);
         String scope = findScope(annot);
-        appendProperty(clsName, scope);
+        appendProperty(clsName, scope + findConditions(element) + findMetadata(type, annot));
+    }
+
+    /**
+     * Finds what the container needs to know about the component before
+     * loading it, so the class is loaded only when a lookup selects it.
+     *
+     * @param element The element of the component.
+     * @param annot   The component annotation.
+     * @return The metadata as {@code ;priority=n;flags=a,b;services=x|y}.
+     */
+    private String findMetadata(TypeElement element, Component annot) {
+        var result = new StringBuilder();
+        var priority = element.getAnnotation(Priority.class);
+        if (priority != null) {
+            result.append(";priority=").append(priority.value());
+        }
+        var flags = new ArrayList<String>();
+        if (annot.instantiate()) {
+            flags.add("eager");
+        }
+        if (annot.prototype()) {
+            flags.add("prototype");
+        }
+        if (element.getAnnotation(Pooled.class) != null) {
+            flags.add("pooled");
+        }
+        if (hasDestroyMethods(element)) {
+            flags.add("destroy");
+        }
+        if (!flags.isEmpty()) {
+            result.append(";flags=").append(String.join(",", flags));
+        }
+        var services = new LinkedHashSet<String>();
+        fillSuperClasses(element, services);
+        fillInterfaces(element, services);
+        services.remove(Object.class.getName());
+        services.remove(binaryName(element));
+        result.append(";services=").append(String.join("|", services));
+        return result.toString();
+    }
+
+    /**
+     * Fills the services provided by the super classes of a component, the
+     * same way the container finds them with reflection.
+     */
+    private void fillSuperClasses(TypeElement element, Set<String> services) {
+        var superClass = element.getSuperclass();
+        while (superClass.getKind() == TypeKind.DECLARED) {
+            var superElement = (TypeElement) ((DeclaredType) superClass).asElement();
+            if (superElement.getQualifiedName().contentEquals(Object.class.getName())) {
+                break;
+            }
+            if (!hasGenericDeclaration(superClass)) {
+                services.add(typeName(superClass));
+            }
+            services.add(binaryName(superElement));
+            fillInterfaces(superElement, services);
+            superClass = superElement.getSuperclass();
+        }
+    }
+
+    /**
+     * Fills the services provided by the interfaces of a class and their
+     * super interfaces.
+     */
+    private void fillInterfaces(TypeElement element, Set<String> services) {
+        for (var ifc : element.getInterfaces()) {
+            if (ifc.getKind() != TypeKind.DECLARED) {
+                continue;
+            }
+            if (!hasGenericDeclaration(ifc)) {
+                services.add(typeName(ifc));
+            }
+            var ifcElement = (TypeElement) ((DeclaredType) ifc).asElement();
+            services.add(binaryName(ifcElement));
+            fillInterfaces(ifcElement, services);
+        }
+    }
+
+    private boolean hasDestroyMethods(TypeElement element) {
+        var current = element;
+        while (current != null && !current.getQualifiedName().contentEquals(Object.class.getName())) {
+            for (var method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+                if (method.getAnnotation(ComponentDestroy.class) != null) {
+                    return true;
+                }
+            }
+            var superClass = current.getSuperclass();
+            current = superClass.getKind() == TypeKind.DECLARED
+                    ? (TypeElement) ((DeclaredType) superClass).asElement() : null;
+        }
+        return false;
+    }
+
+    /**
+     * Determines if a type has type variables or wildcards, those types are
+     * not services of the component, like in the container.
+     */
+    private static boolean hasGenericDeclaration(TypeMirror type) {
+        if (type.getKind() == TypeKind.DECLARED) {
+            for (var arg : ((DeclaredType) type).getTypeArguments()) {
+                if (hasGenericDeclaration(arg)) {
+                    return true;
+                }
+            }
+        }
+        return type.getKind() == TypeKind.TYPEVAR || type.getKind() == TypeKind.WILDCARD;
+    }
+
+    /**
+     * Gets the name of a type as {@link java.lang.reflect.Type#getTypeName()}
+     * returns it at runtime, the container looks the services up by it.
+     */
+    private String typeName(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return typeName(((ArrayType) type).getComponentType()) + "[]";
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return type.toString();
+        }
+        var declared = (DeclaredType) type;
+        var element = (TypeElement) declared.asElement();
+        var result = new StringBuilder();
+        var enclosing = declared.getEnclosingType();
+        if (enclosing.getKind() == TypeKind.DECLARED
+                && !((DeclaredType) enclosing).getTypeArguments().isEmpty()) {
+            result.append(typeName(enclosing)).append('$').append(element.getSimpleName());
+        } else {
+            result.append(binaryName(element));
+        }
+        var args = declared.getTypeArguments();
+        if (!args.isEmpty()) {
+            var names = new ArrayList<String>();
+            for (var arg : args) {
+                names.add(typeName(arg));
+            }
+            result.append('<').append(String.join(", ", names)).append('>');
+        }
+        return result.toString();
+    }
+
+    private String binaryName(TypeElement element) {
+        return processingEnv.getElementUtils().getBinaryName(element).toString();
+    }
+
+    /**
+     * Finds the activation conditions of the component, they are appended to
+     * the scope so they can be evaluated without loading the class.
+     *
+     * @param element The element of the component.
+     * @return The conditions as {@code ;profiles=a,b;requires=x.Y}, or an
+     * empty string if the component has no conditions.
+     */
+    private String findConditions(Element element) {
+        var result = new StringBuilder();
+        var profile = element.getAnnotation(Profile.class);
+        if (profile != null && profile.value().length > 0) {
+            result.append(";profiles=").append(String.join(",", profile.value()));
+        }
+        var requires = element.getAnnotation(RequiresClass.class);
+        if (requires != null && requires.value().length > 0) {
+            result.append(";requires=").append(String.join(",", requires.value()));
+        }
+        return result.toString();
     }
 
     private String findScope(Component annot) {
         try {
             annot.scope();
         } catch (MirroredTypeException e) {
-            return e.getTypeMirror().toString();
+            var mirror = e.getTypeMirror();
+            if (mirror.getKind() == TypeKind.DECLARED) {
+                return binaryName((TypeElement) ((DeclaredType) mirror).asElement());
+            }
+            return mirror.toString();
         }
         return "";
     }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.scope;
+
+/**
+ * This class represents the thread scope, every thread gets its own instance
+ * of the components of this scope, so components that are not thread safe,
+ * like formatters or parsers, can be used without synchronization.
+ * <p>
+ * Thread scoped components are found through the application context from
+ * any context, they are created in a child context of the application context
+ * that belongs to the current thread. That context is closed, calling the
+ * destroy methods of its components, when the thread calls
+ * {@link me.gilbva.shrike.context.IocContext#releaseThread()}, when the
+ * application context is closed, or after the thread ends and is garbage
+ * collected.
+ * <p>
+ * A thread scoped component should not be injected in application scoped
+ * components, because they would keep the instance of the thread that created
+ * them.
+ *
+ * @author Gilberto Vento
+ */
+public final class ThreadScope implements Scope {
+    private final long threadId;
+
+    private final String threadName;
+
+    /**
+     * Creates the scope of the given thread, the scope does not keep a
+     * reference to the thread.
+     *
+     * @param thread The thread that owns the scope.
+     */
+    public ThreadScope(Thread thread) {
+        this.threadId = thread.getId();
+        this.threadName = thread.getName();
+    }
+
+    /**
+     * Gets the id of the thread that owns this scope.
+     *
+     * @return The id of the thread.
+     */
+    public long getThreadId() {
+        return threadId;
+    }
+
+    /**
+     * Gets the name of the thread that owns this scope, at the time the scope
+     * was created.
+     *
+     * @return The name of the thread.
+     */
+    public String getThreadName() {
+        return threadName;
+    }
+
+    @Override
+    public void preCreateComponent(Class<Object> clazz) {
+        //Before creating a Thread scoped component
+    }
+
+    @Override
+    public void preInitComponent(Class<Object> clazz, Object instance) {
+        //Before init a Thread scoped component
+    }
+
+    @Override
+    public void postInitComponent(Class<Object> clazz, Object instance) {
+        //After init a Thread scoped component
+    }
+
+    @Override
+    public String toString() {
+        return "ThreadScope: " + threadName;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.test.assisted.MessageConsumer;
+import me.gilbva.shrike.test.assisted.MessageHandlerFactory;
+import me.gilbva.shrike.test.comps.DummyComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+public class AssistedFactoryTest {
+    @Test
+    public void testFactory() {
+        var factory = Shrike.find(MessageHandlerFactory.class);
+        assertNotNull(factory);
+        var first = factory.create("first", 3);
+        var second = factory.create("second", 5);
+        assertNotSame(first, second);
+        assertEquals("first", first.getMessage());
+        assertEquals(3, first.getRetries());
+        assertEquals("second", second.getMessage());
+        assertEquals(5, second.getRetries());
+        assertSame(Shrike.find(DummyComponent.class), first.getDummy());
+        assertSame(first.getDummy(), second.getDummy());
+    }
+
+    @Test
+    public void testDefaultMethod() {
+        var handler = Shrike.find(MessageHandlerFactory.class).create("default");
+        assertEquals("default", handler.getMessage());
+        assertEquals(1, handler.getRetries());
+        assertNotNull(handler.getDummy());
+    }
+
+    @Test
+    public void testInjectedFactory() {
+        var handler = Shrike.find(MessageConsumer.class).handle("message");
+        assertEquals("message", handler.getMessage());
+        assertNotNull(handler.getDummy());
+    }
+}
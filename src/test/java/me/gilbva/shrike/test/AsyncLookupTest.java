@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.test.async.SlowGenericComponent;
+import me.gilbva.shrike.test.async.SlowInitComponent;
+import me.gilbva.shrike.test.comps.SomeService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class AsyncLookupTest {
+    @Test
+    public void testFindAsync() throws Exception {
+        var future = Shrike.findAsync(SlowInitComponent.class);
+        assertFalse(future.isDone());
+        var result = future.get(10, TimeUnit.SECONDS);
+        assertNotNull(result);
+
+        var existing = Shrike.findAsync(SlowInitComponent.class);
+        assertTrue(existing.isDone());
+        assertSame(result, existing.get());
+    }
+
+    @Test
+    public void testFindGenericAsync() throws Exception {
+        var type = SlowGenericComponent.class.getGenericInterfaces()[0];
+        var future = Shrike.context().findGenericAsync(type);
+        future.cancel(false);
+        assertThrows(CancellationException.class, future::join);
+
+        var result = (Supplier<Integer>) Shrike.context().findGenericAsync(type).get(10, TimeUnit.SECONDS);
+        assertEquals(42, result.get());
+        assertSame(result, Shrike.findGeneric(type));
+    }
+
+    @Test
+    public void testFindAsyncMultiple() throws Exception {
+        var result = Shrike.findAsync(SomeService[].class).get(10, TimeUnit.SECONDS);
+        assertEquals(2, result.length);
+
+        assertNull(Shrike.findAsync(AsyncLookupTest.class).get());
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.context.IocContext;
+import me.gilbva.shrike.test.comps.DummyComponent;
+import me.gilbva.shrike.test.scope.ContextResource;
+import me.gilbva.shrike.test.scope.RequestComponent;
+import me.gilbva.shrike.test.scope.RequestResource;
+import me.gilbva.shrike.test.scope.RequestScope;
+import me.gilbva.shrike.test.scope.RequestService;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class ChildContextTest {
+    @Test
+    public void testChildContext() {
+        var scope = new RequestScope();
+        var child = Shrike.createChild(scope);
+        var comp = child.find(RequestComponent.class);
+        assertNotNull(comp);
+        assertSame(comp, child.find(RequestComponent.class));
+        assertSame(child, comp.getContext());
+        assertSame(Shrike.find(DummyComponent.class), comp.getDummy());
+        assertEquals(1, scope.getCreated().size());
+        assertNull(Shrike.find(RequestComponent.class));
+        child.close();
+    }
+
+    @Test
+    public void testClose() {
+        var child = Shrike.createChild(new RequestScope());
+        var comp = child.find(RequestComponent.class);
+        child.close();
+        assertThrows(IllegalStateException.class, () -> child.find(RequestComponent.class));
+
+        var other = Shrike.createChild(new RequestScope());
+        var otherComp = other.find(RequestComponent.class);
+        assertNotNull(otherComp);
+        assertNotSame(comp, otherComp);
+        other.close();
+    }
+
+    @Test
+    public void testDestroy() {
+        RequestResource.DESTROYED.clear();
+        try (var child = Shrike.createChild(new RequestScope())) {
+            assertNotNull(child.find(RequestService.class).getResource());
+            assertEquals(List.of(), RequestResource.DESTROYED);
+        }
+        assertEquals(List.of("RequestService", "RequestResource"), RequestResource.DESTROYED);
+    }
+
+    @Test
+    public void testDestroyUnclosed() throws InterruptedException {
+        RequestResource.DESTROYED.clear();
+        createUnclosed();
+        for (int i = 0; i < 100 && RequestResource.DESTROYED.isEmpty(); i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertEquals(List.of("RequestResource"), RequestResource.DESTROYED);
+    }
+
+    @Test
+    public void testDestroyUnclosedWithContextReference() throws InterruptedException {
+        RequestResource.DESTROYED.clear();
+        ContextResource.DESTROYED.clear();
+        var ref = createUnclosedWithContextReference();
+        for (int i = 0; i < 100 && (ref.get() != null || RequestResource.DESTROYED.isEmpty()); i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertNull(ref.get());
+        assertEquals(List.of("RequestResource"), RequestResource.DESTROYED);
+        assertEquals(List.of(), ContextResource.DESTROYED);
+    }
+
+    @Test
+    public void testDestroyWithContextReference() {
+        RequestResource.DESTROYED.clear();
+        ContextResource.DESTROYED.clear();
+        try (var child = Shrike.createChild(new RequestScope())) {
+            assertSame(child, child.find(ContextResource.class).getContext());
+            assertNotNull(child.find(RequestResource.class));
+        }
+        assertEquals(List.of("ContextResource"), ContextResource.DESTROYED);
+        assertEquals(List.of("RequestResource"), RequestResource.DESTROYED);
+    }
+
+    private WeakReference<IocContext> createUnclosedWithContextReference() {
+        var child = Shrike.createChild(new RequestScope());
+        assertSame(child, child.find(ContextResource.class).getContext());
+        assertNotNull(child.find(RequestResource.class));
+        return new WeakReference<>(child);
+    }
+
+    private void createUnclosed() {
+        var child = Shrike.createChild(new RequestScope());
+        assertNotNull(child.find(RequestResource.class));
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.tools.ToolProvider;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.test.comps.DummyComponent;
+import me.gilbva.shrike.test.ctor.ConstructorService;
+import me.gilbva.shrike.test.ctor.AmbiguousService;
+import me.gilbva.shrike.test.ctor.CycleLeft;
+import me.gilbva.shrike.test.ctor.CycleRight;
+import me.gilbva.shrike.test.ctor.Greeter;
+import me.gilbva.shrike.test.ctor.LoudGreeter;
+import me.gilbva.shrike.test.scope.RequestScope;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ConstructorInjectionTest {
+    @Test
+    public void testInjectConstructor() {
+        var service = Shrike.find(ConstructorService.class);
+        assertNotNull(service);
+        assertSame(Shrike.find(DummyComponent.class), service.getDummy());
+        assertSame(service.getDummy(), service.getFieldDummy());
+        assertSame(Shrike.find(LoudGreeter.class), service.getGreeter());
+        assertEquals(2, service.getGreeters().size());
+    }
+
+    @Test
+    public void testInjectNext() {
+        assertEquals("HELLO WORLD!", Shrike.find(Greeter.class).greet("World"));
+    }
+
+    @Test
+    public void testCycle() {
+        var ex = assertThrows(IllegalStateException.class, () -> Shrike.find(CycleLeft.class));
+        assertEquals("Circular dependency through the constructors: " + CycleLeft.class.getName()
+                + " -> " + CycleRight.class.getName() + " -> " + CycleLeft.class.getName(), ex.getMessage());
+        //The failed creation is not kept.
+        assertThrows(IllegalStateException.class, () -> Shrike.find(CycleRight.class));
+    }
+
+    @Test
+    public void testAmbiguous() {
+        try (var child = Shrike.createChild(new RequestScope())) {
+            assertThrows(IllegalStateException.class, () -> {
+                child.registerComponent(AmbiguousService.class);
+                child.find(AmbiguousService.class);
+            });
+        }
+    }
+
+    @Test
+    public void testRecord(@TempDir Path dir) throws Exception {
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        assumeTrue(compiler != null && Runtime.version().feature() >= 16, "Records need JDK 16");
+        var source = dir.resolve("GreeterRecord.java");
+        Files.writeString(source, "public record GreeterRecord("
+                + Greeter.class.getName() + " greeter, " + DummyComponent.class.getName() + " dummy) {\n"
+                + "    public GreeterRecord(" + Greeter.class.getName() + " greeter) {\n"
+                + "        this(greeter, null);\n"
+                + "    }\n"
+                + "}\n");
+        var classpath = System.getProperty("java.class.path");
+        assertEquals(0, compiler.run(null, null, null, "-cp", classpath, "-d", dir.toString(), source.toString()));
+        try (var loader = new URLClassLoader(new URL[]{dir.toUri().toURL()}, getClass().getClassLoader());
+             var child = Shrike.createChild(new RequestScope())) {
+            var recordCls = loader.loadClass("GreeterRecord");
+            child.registerComponent(recordCls);
+            var instance = child.find(recordCls);
+            assertNotNull(instance);
+            var dummy = recordCls.getMethod("dummy").invoke(instance);
+            assertSame(Shrike.find(DummyComponent.class), dummy);
+            assertSame(Shrike.find(Greeter.class), recordCls.getMethod("greeter").invoke(instance));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.context.ContextBinding;
+import me.gilbva.shrike.context.IocContext;
+import me.gilbva.shrike.test.scope.RequestComponent;
+import me.gilbva.shrike.test.scope.RequestScope;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class ContextBindingTest {
+    @Test
+    public void testRun() {
+        try (var child = Shrike.createChild(new RequestScope())) {
+            ContextBinding.run(child, () ->
+            {
+                assertSame(child, Shrike.current());
+                assertSame(child.find(RequestComponent.class), Shrike.find(RequestComponent.class));
+            });
+        }
+        assertNull(ContextBinding.current());
+        assertSame(Shrike.context(), Shrike.current());
+        assertNull(Shrike.find(RequestComponent.class));
+    }
+
+    @Test
+    public void testNested() {
+        try (var outer = Shrike.createChild(new RequestScope());
+             var inner = Shrike.createChild(new RequestScope())) {
+            ContextBinding.run(outer, () ->
+            {
+                var outerComp = Shrike.find(RequestComponent.class);
+                ContextBinding.run(inner, () ->
+                {
+                    assertSame(inner, Shrike.current());
+                    assertNotSame(outerComp, Shrike.find(RequestComponent.class));
+                });
+                assertSame(outer, Shrike.current());
+                assertSame(outerComp, Shrike.find(RequestComponent.class));
+            });
+        }
+    }
+
+    @Test
+    public void testCall() throws Exception {
+        try (var child = Shrike.createChild(new RequestScope())) {
+            var comp = ContextBinding.call(child, () -> Shrike.find(RequestComponent.class));
+            assertSame(child.find(RequestComponent.class), comp);
+            var ex = assertThrows(IOException.class, () -> ContextBinding.call(child, () ->
+            {
+                throw new IOException("failed");
+            }));
+            assertEquals("failed", ex.getMessage());
+        }
+        assertNull(ContextBinding.current());
+    }
+
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        var requests = 200;
+        //All the requests are alive at once, on virtual threads if the JVM
+        //has them.
+        var executor = createVirtualExecutor();
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(requests);
+        }
+        var alive = new CyclicBarrier(requests);
+        var components = ConcurrentHashMap.newKeySet();
+        var futures = new ArrayList<Future<IocContext<?>>>();
+        try {
+            for (int i = 0; i < requests; i++) {
+                futures.add(executor.submit(() -> {
+                    IocContext<?> result;
+                    try (var context = Shrike.createChild(new RequestScope())) {
+                        result = context;
+                        ContextBinding.call(context, () -> {
+                            var comp = Shrike.find(RequestComponent.class);
+                            assertSame(context, comp.getContext());
+                            components.add(comp);
+                            alive.await(10, TimeUnit.SECONDS);
+                            //The other requests did not change the binding of this one.
+                            assertSame(context, Shrike.current());
+                            assertSame(comp, Shrike.find(RequestComponent.class));
+                            return null;
+                        });
+                        assertNull(ContextBinding.current());
+                    }
+                    return result;
+                }));
+            }
+            for (var future : futures) {
+                var context = future.get(30, TimeUnit.SECONDS);
+                assertThrows(IllegalStateException.class, () -> context.find(RequestComponent.class));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(requests, components.size());
+    }
+
+    private static ExecutorService createVirtualExecutor() {
+        try {
+            var method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.context.ContextBinding;
+import me.gilbva.shrike.context.ContextExecutors;
+import me.gilbva.shrike.test.scope.RequestComponent;
+import me.gilbva.shrike.test.scope.RequestScope;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+public class ContextExecutorsTest {
+    @Test
+    public void testExecutorService() throws Exception {
+        var executor = ContextExecutors.wrap(Executors.newFixedThreadPool(2));
+        try (var child = Shrike.createChild(new RequestScope())) {
+            var expected = child.find(RequestComponent.class);
+            var future = ContextBinding.call(child, () -> executor.submit(() -> Shrike.find(RequestComponent.class)));
+            assertSame(expected, future.get());
+
+            Callable<Object> task = () -> Shrike.find(RequestComponent.class);
+            var futures = ContextBinding.call(child, () -> executor.invokeAll(List.of(task, task)));
+            for (var f : futures) {
+                assertSame(expected, f.get());
+            }
+
+            assertNull(executor.submit(() -> Shrike.find(RequestComponent.class)).get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCapture() throws Exception {
+        try (var first = Shrike.createChild(new RequestScope());
+             var second = Shrike.createChild(new RequestScope())) {
+            var expected = first.find(RequestComponent.class);
+            var seen = new ArrayList<Object>();
+            Runnable runnable = () -> seen.add(Shrike.find(RequestComponent.class));
+            Callable<Object> callable = () -> Shrike.find(RequestComponent.class);
+            var captured = ContextBinding.call(first, () -> ContextExecutors.capture(runnable));
+            var capturedCall = ContextBinding.call(first, () -> ContextExecutors.capture(callable));
+
+            //The task runs with the context bound when it was captured, and
+            //the context of the running thread is restored after it.
+            ContextBinding.run(second, () -> {
+                captured.run();
+                assertSame(second, ContextBinding.current());
+            });
+            assertEquals(List.of(expected), seen);
+            assertSame(expected, ContextBinding.call(second, capturedCall));
+            assertNull(ContextBinding.current());
+
+            //Without a bound context the tasks are not wrapped.
+            assertSame(runnable, ContextExecutors.capture(runnable));
+            assertSame(callable, ContextExecutors.capture(callable));
+        }
+    }
+
+    @Test
+    public void testDirectExecutor() throws Exception {
+        //The executor of CaptureBenchmark, the tasks run in the calling thread.
+        var executor = ContextExecutors.wrap((Executor) Runnable::run);
+        try (var child = Shrike.createChild(new RequestScope())) {
+            var seen = new ArrayList<Object>();
+            ContextBinding.run(child, () -> {
+                executor.execute(() -> seen.add(ContextBinding.current()));
+                assertSame(child, ContextBinding.current());
+            });
+            executor.execute(() -> seen.add(ContextBinding.current()));
+            assertEquals(Arrays.asList(child, null), seen);
+        }
+    }
+
+    @Test
+    public void testCompletableFuture() throws Exception {
+        var pool = Executors.newFixedThreadPool(2);
+        var executor = ContextExecutors.wrap((Executor) pool);
+        try (var child = Shrike.createChild(new RequestScope())) {
+            var expected = child.find(RequestComponent.class);
+            var future = ContextBinding.call(child, () ->
+                    ContextExecutors.supplyAsync(() -> Shrike.find(RequestComponent.class), pool)
+                            .thenApplyAsync(comp -> comp == Shrike.find(RequestComponent.class) ? comp : null, executor));
+            assertSame(expected, future.get());
+            assertNull(CompletableFuture.supplyAsync(() -> Shrike.find(RequestComponent.class), executor).get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testUnboundCompletion() throws Exception {
+        var pool = Executors.newFixedThreadPool(2);
+        var executor = ContextExecutors.wrap((Executor) pool);
+        try (var child = Shrike.createChild(new RequestScope())) {
+            var expected = child.find(RequestComponent.class);
+            var io = new CompletableFuture<String>();
+            var future = ContextBinding.call(child, () ->
+                    ContextExecutors.propagate(io)
+                            .thenApplyAsync(s -> Shrike.find(RequestComponent.class), executor)
+                            .thenApplyAsync(comp -> comp == Shrike.find(RequestComponent.class) ? comp : null));
+            //The previous stage completes on a thread without a bound context.
+            var thread = new Thread(() -> io.complete("done"));
+            thread.start();
+            thread.join();
+            assertSame(expected, future.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.test.deferred.Command;
+import me.gilbva.shrike.test.deferred.DeferredScope;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class DeferredLoadingTest {
+    private static final String UNUSED_COMMAND = "me.gilbva.shrike.test.deferred.UnusedCommand";
+
+    private static final String UNUSED_TOOL = "me.gilbva.shrike.test.deferred.UnusedTool";
+
+    @Test
+    public void testDeferredLoading() {
+        var hierarchy = loadedClasses();
+        assumeTrue(hierarchy != null, "The class hierarchy diagnostic command is not available.");
+        try (var context = Shrike.createChild(new DeferredScope())) {
+            assertEquals("used", context.find(Command.class).run());
+            assertTrue(context.exists(Command.class));
+            assertTrue(context.stream(Command.class).findFirst().isPresent());
+            hierarchy = loadedClasses();
+            assertFalse(hierarchy.contains(UNUSED_COMMAND));
+            assertFalse(hierarchy.contains(UNUSED_TOOL));
+
+            assertEquals(2, context.findAll(Command.class).length);
+            hierarchy = loadedClasses();
+            assertTrue(hierarchy.contains(UNUSED_COMMAND));
+            assertFalse(hierarchy.contains(UNUSED_TOOL));
+        }
+    }
+
+    /**
+     * Lists the classes loaded by the JVM with the HotSpot diagnostic
+     * command, it does not load any class.
+     */
+    private static String loadedClasses() {
+        try {
+            var server = ManagementFactory.getPlatformMBeanServer();
+            var name = new ObjectName("com.sun.management:type=DiagnosticCommand");
+            return (String) server.invoke(name, "vmClassHierarchy",
+                    new Object[]{new String[0]}, new String[]{String[].class.getName()});
+        } catch (JMException ex) {
+            return null;
+        }
+    }
+}
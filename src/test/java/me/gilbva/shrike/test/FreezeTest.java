@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import java.util.List;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.test.comps.DummyComponent;
+import me.gilbva.shrike.test.scope.FlakyRequestComponent;
+import me.gilbva.shrike.test.scope.RequestComponent;
+import me.gilbva.shrike.test.scope.RequestScope;
+import me.gilbva.shrike.test.scope.RequestService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class FreezeTest {
+    @Test
+    public void testFreeze() {
+        var scope = new RequestScope();
+        try (var child = Shrike.createChild(scope)) {
+            var comp = child.find(RequestComponent.class);
+            assertFalse(child.isFrozen());
+            child.freeze();
+            assertTrue(child.isFrozen());
+            assertFalse(scope.getCreated().contains(RequestService.class));
+            assertSame(comp, child.find(RequestComponent.class));
+            assertSame(child.find(RequestService.class), child.findGeneric(RequestService.class));
+            assertSame(Shrike.find(DummyComponent.class), child.find(DummyComponent.class));
+            assertEquals(1, child.findAll(RequestComponent.class).length);
+        }
+    }
+
+    @Test
+    public void testFreezeCreatesNothing() {
+        var scope = new RequestScope();
+        try (var child = Shrike.createChild(scope)) {
+            child.freeze();
+            assertEquals(List.of(), scope.getCreated());
+
+            //The components are created on their first lookup, through the
+            //frozen tables.
+            var comp = child.find(RequestComponent.class);
+            assertNotNull(comp);
+            assertEquals(List.of(RequestComponent.class), scope.getCreated());
+            assertSame(comp, child.findGeneric(RequestComponent.class));
+            assertSame(comp, child.findAll(RequestComponent.class)[0]);
+            assertSame(comp, child.stream(RequestComponent.class).findFirst().orElse(null));
+        }
+    }
+
+    @Test
+    public void testFailFastCreates() {
+        var scope = new RequestScope();
+        try (var child = Shrike.createChild(scope)) {
+            child.freeze(true);
+            assertTrue(scope.getCreated().contains(RequestService.class));
+        }
+    }
+
+    @Test
+    public void testSlowPath() {
+        try (var child = Shrike.createChild(new RequestScope())) {
+            FlakyRequestComponent.FAIL.set(true);
+            try {
+                child.freeze();
+            } finally {
+                FlakyRequestComponent.FAIL.set(false);
+            }
+            assertNotNull(child.find(FlakyRequestComponent.class));
+        }
+    }
+
+    @Test
+    public void testFailFast() {
+        try (var child = Shrike.createChild(new RequestScope())) {
+            FlakyRequestComponent.FAIL.set(true);
+            try {
+                child.freeze(true);
+            } finally {
+                FlakyRequestComponent.FAIL.set(false);
+            }
+            assertNotNull(child.find(RequestComponent.class));
+            assertThrows(IllegalStateException.class, () -> child.find(FlakyRequestComponent.class));
+        }
+    }
+}
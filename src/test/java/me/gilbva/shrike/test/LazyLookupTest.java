@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import java.util.stream.Collectors;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.test.lazy.LazyChain;
+import me.gilbva.shrike.test.lazy.LazyHandler;
+import me.gilbva.shrike.test.lazy.LazyHandlerFirst;
+import me.gilbva.shrike.test.lazy.LazyHandlerSecond;
+import me.gilbva.shrike.test.lazy.LazyHandlerThird;
+import me.gilbva.shrike.test.priority.PriorityComp1;
+import me.gilbva.shrike.test.priority.PriorityComp2;
+import me.gilbva.shrike.test.priority.PriorityComp3;
+import me.gilbva.shrike.test.priority.PriorityComp4;
+import me.gilbva.shrike.test.priority.PriorityService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class LazyLookupTest {
+    @Test
+    public void testStream() {
+        var handler = Shrike.stream(LazyHandler.class)
+                .filter(h -> h.accept("a"))
+                .findFirst();
+        assertTrue(handler.isPresent());
+        assertTrue(handler.get() instanceof LazyHandlerFirst);
+        assertEquals(0, LazyHandlerThird.INSTANCES.get());
+    }
+
+    @Test
+    public void testStreamOrder() {
+        var all = Shrike.stream(PriorityService.class)
+                .map(Object::getClass)
+                .collect(Collectors.toList());
+        assertEquals(4, all.size());
+        assertEquals(PriorityComp3.class, all.get(0));
+        assertEquals(PriorityComp1.class, all.get(1));
+        assertEquals(PriorityComp4.class, all.get(2));
+        assertEquals(PriorityComp2.class, all.get(3));
+    }
+
+    @Test
+    public void testInjectIterable() {
+        var chain = Shrike.find(LazyChain.class);
+        assertTrue(chain.handle("b") instanceof LazyHandlerSecond);
+        assertEquals(1, LazyHandlerSecond.INSTANCES.get());
+        assertEquals(0, LazyHandlerThird.INSTANCES.get());
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.test.exec.ExecutorUser;
+import me.gilbva.shrike.test.scope.RequestScope;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class ManagedExecutorTest {
+    @Test
+    public void testInjection() throws Exception {
+        var user = Shrike.find(ExecutorUser.class);
+        assertNotNull(user.getPool());
+        assertSame(user.getPool(), user.getExecutor());
+        assertSame(user.getPool(), Shrike.context().executor("default"));
+        assertNotSame(user.getPool(), user.getIo());
+        assertSame(user.getIo(), Shrike.context().executor("io"));
+        assertNotNull(user.getScheduler());
+        assertSame(user.getScheduler(), Shrike.context().scheduler(""));
+
+        var name = user.getIo().submit(() -> Thread.currentThread().getName()).get();
+        assertTrue(name.startsWith("shrike-io-"));
+        var scheduled = user.getScheduler().schedule(() -> 1, 1, TimeUnit.MILLISECONDS).get();
+        assertEquals(1, scheduled);
+    }
+
+    @Test
+    public void testMismatch() {
+        var executor = Shrike.context().executor("mismatch");
+        assertNotNull(executor);
+        var ex = assertThrows(IllegalStateException.class, () -> Shrike.context().scheduler("mismatch"));
+        assertTrue(ex.getMessage().contains("'mismatch'"));
+        assertTrue(ex.getMessage().contains(executor.getClass().getName()));
+        assertTrue(ex.getMessage().contains(ScheduledExecutorService.class.getName()));
+
+        //A scheduled executor can still be used as a plain one.
+        assertSame(Shrike.context().scheduler("mismatch-scheduled"), Shrike.context().executor("mismatch-scheduled"));
+    }
+
+    @Test
+    public void testChildContext() {
+        try (var child = Shrike.createChild(new RequestScope())) {
+            assertSame(Shrike.context().executor("io"), child.executor("io"));
+        }
+    }
+
+    @Test
+    public void testShutdown() throws Exception {
+        var context = Shrike.createRoot();
+        context.whenInitialized().get(10, TimeUnit.SECONDS);
+        var user = context.find(ExecutorUser.class);
+        assertNotSame(Shrike.find(ExecutorUser.class).getPool(), user.getPool());
+        assertEquals(2, (int) user.getPool().submit(() -> 2).get());
+        context.close();
+        assertTrue(user.getPool().isShutdown());
+        assertTrue(user.getIo().isShutdown());
+        assertTrue(user.getScheduler().isShutdown());
+        assertThrows(IllegalStateException.class, () -> context.executor("other"));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.test.comps.DummyComponent;
+import me.gilbva.shrike.test.external.ExternalHandler;
+import me.gilbva.shrike.test.external.ThreadHandler;
+import me.gilbva.shrike.test.scope.RequestScope;
+import me.gilbva.shrike.test.thread.ThreadFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class MembersInjectionTest {
+    @Test
+    public void testInjectMembers() {
+        var first = new ExternalHandler();
+        var second = new ExternalHandler();
+        Shrike.injectMembers(first);
+        Shrike.injectMembers(second);
+        assertSame(Shrike.find(DummyComponent.class), first.getDummy());
+        assertSame(first.getDummy(), second.getDummy());
+        assertSame(Shrike.context(), first.getContext());
+        assertNotNull(first.getState());
+        assertNotSame(first.getState(), second.getState());
+        assertEquals(1, first.getDummies().size());
+        assertNotSame(first.getDummies(), second.getDummies());
+    }
+
+    @Test
+    public void testChildContext() {
+        try (var child = Shrike.createChild(new RequestScope())) {
+            var handler = new ExternalHandler();
+            child.injectMembers(handler);
+            assertSame(child, handler.getContext());
+            assertSame(Shrike.find(DummyComponent.class), handler.getDummy());
+        }
+    }
+
+    @Test
+    public void testThreadScoped() throws Exception {
+        var first = new ThreadHandler();
+        Shrike.injectMembers(first);
+        assertSame(Shrike.find(ThreadFormatter.class), first.getFormatter());
+
+        var result = new CompletableFuture<ThreadHandler>();
+        var thread = new Thread(() -> {
+            var handler = new ThreadHandler();
+            Shrike.injectMembers(handler);
+            var same = handler.getFormatter() == Shrike.find(ThreadFormatter.class);
+            Shrike.releaseThread();
+            result.complete(same ? handler : null);
+        });
+        thread.start();
+        var second = result.get(5, TimeUnit.SECONDS);
+        assertNotNull(second);
+        assertNotSame(first.getFormatter(), second.getFormatter());
+    }
+
+    @Test
+    public void testNull() {
+        assertThrows(IllegalArgumentException.class, () -> Shrike.injectMembers(null));
+    }
+}
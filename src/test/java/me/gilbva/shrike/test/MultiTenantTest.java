@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.context.ContextBinding;
+import me.gilbva.shrike.test.comps.DummyComponent;
+import me.gilbva.shrike.test.scope.RequestComponent;
+import me.gilbva.shrike.test.scope.RequestScope;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class MultiTenantTest {
+    @Test
+    public void testIndependentRoots() {
+        try (var first = Shrike.createRoot(); var second = Shrike.createRoot()) {
+            assertNotSame(first, second);
+            assertNotSame(Shrike.context(), first);
+            assertNull(first.getParent());
+
+            var dummy = first.find(DummyComponent.class);
+            assertNotNull(dummy);
+            assertSame(dummy, first.find(DummyComponent.class));
+            assertNotSame(dummy, second.find(DummyComponent.class));
+            assertNotSame(dummy, Shrike.find(DummyComponent.class));
+
+            try (var child = first.createChild(new RequestScope())) {
+                assertSame(dummy, child.find(RequestComponent.class).getDummy());
+            }
+        }
+    }
+
+    @Test
+    public void testBinding() throws Exception {
+        try (var tenant = Shrike.createRoot()) {
+            var dummy = ContextBinding.call(tenant, () -> Shrike.find(DummyComponent.class));
+            assertSame(tenant.find(DummyComponent.class), dummy);
+        }
+    }
+
+    @Test
+    public void testClose() {
+        var tenant = Shrike.createRoot();
+        tenant.close();
+        assertThrows(IllegalStateException.class, () -> tenant.find(DummyComponent.class));
+        assertThrows(IllegalStateException.class, () -> tenant.executor("default"));
+        assertNotNull(Shrike.find(DummyComponent.class));
+    }
+}
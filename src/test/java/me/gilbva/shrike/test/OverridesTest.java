@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.test.comps.DummyComponent;
+import me.gilbva.shrike.test.ctor.ConstructorService;
+import me.gilbva.shrike.test.ctor.Greeter;
+import me.gilbva.shrike.test.override.OverrideResource;
+import me.gilbva.shrike.test.override.OverrideScope;
+import me.gilbva.shrike.test.scope.RequestComponent;
+import me.gilbva.shrike.test.scope.RequestScope;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class OverridesTest {
+    @Test
+    public void testOverrides() {
+        Greeter stub = name -> "stub " + name;
+        try (var context = Shrike.withOverrides(Map.of(Greeter.class, stub))) {
+            assertSame(stub, context.find(Greeter.class));
+            assertTrue(context.exists(Greeter.class));
+            var service = context.find(ConstructorService.class);
+            assertSame(stub, service.getGreeter());
+            assertNotSame(Shrike.find(ConstructorService.class), service);
+            assertEquals("stub World", context.findAsync(Greeter.class).join().greet("World"));
+        }
+        assertEquals("HELLO WORLD!", Shrike.find(Greeter.class).greet("World"));
+    }
+
+    @Test
+    public void testChildOverrides() {
+        var dummy = new DummyComponent();
+        try (var child = Shrike.createChild(new RequestScope());
+             var context = child.withOverrides(Map.of(DummyComponent.class, dummy))) {
+            assertSame(child.getParent(), context.getParent());
+            assertSame(dummy, context.find(RequestComponent.class).getDummy());
+            assertSame(Shrike.find(DummyComponent.class), child.find(RequestComponent.class).getDummy());
+        }
+    }
+
+    @Test
+    public void testSharedScope() {
+        var scope = new OverrideScope();
+        try (var child = Shrike.createChild(scope)) {
+            var resource = scope.getResource();
+            assertSame(resource, child.find(OverrideResource.class));
+            var created = scope.getCreated().size();
+            try (var context = child.withOverrides(Map.of(Greeter.class, (Greeter) name -> name))) {
+                assertNotSame(resource, context.find(OverrideResource.class));
+                assertSame(scope, context.getScope());
+            }
+            assertSame(resource, scope.getResource());
+            assertFalse(resource.isDestroyed());
+            assertEquals(created, scope.getCreated().size());
+        }
+    }
+
+    @Test
+    public void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> Shrike.withOverrides(null));
+        Map<Type, Object> overrides = Map.of(Greeter.class, "text");
+        assertThrows(IllegalArgumentException.class, () -> Shrike.withOverrides(overrides));
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.context.ComponentPool;
+import me.gilbva.shrike.test.comps.DummyComponent;
+import me.gilbva.shrike.test.pool.CodecUser;
+import me.gilbva.shrike.test.pool.PooledCodec;
+import me.gilbva.shrike.test.pool.RequestCodec;
+import me.gilbva.shrike.test.scope.RequestScope;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class PoolTest {
+    @Test
+    public void testInjection() {
+        var pool = Shrike.findPool(PooledCodec.class);
+        assertNotNull(pool);
+        assertSame(pool, Shrike.find(CodecUser.class).getCodecs());
+        assertEquals(2, pool.getMaxSize());
+        assertNull(Shrike.findPool(DummyComponent.class));
+    }
+
+    @Test
+    public void testReuse() {
+        var pool = Shrike.findPool(PooledCodec.class);
+        PooledCodec first;
+        try (var lease = pool.borrow()) {
+            first = lease.get();
+            assertNotNull(first);
+            assertSame(Shrike.find(DummyComponent.class), first.getDummy());
+        }
+        var created = PooledCodec.CREATED.get();
+        try (var lease = pool.borrow()) {
+            assertNotNull(lease.get());
+            try (var other = pool.borrow()) {
+                assertNotSame(lease.get(), other.get());
+            }
+        }
+        assertTrue(PooledCodec.CREATED.get() - created <= 1);
+        assertTrue(pool.getCreated() <= pool.getMaxSize());
+        assertEquals(0, pool.getInUse());
+    }
+
+    @Test
+    public void testBound() throws Exception {
+        var pool = Shrike.findPool(PooledCodec.class);
+        var first = pool.acquire();
+        var second = pool.acquire();
+        try {
+            assertEquals(2, pool.getInUse());
+            assertNull(pool.acquire(10, TimeUnit.MILLISECONDS));
+
+            var waiting = CompletableFuture.supplyAsync(pool::acquire);
+            Thread.sleep(50);
+            assertTrue(!waiting.isDone());
+            pool.release(first);
+            var third = waiting.get(5, TimeUnit.SECONDS);
+            assertSame(first, third);
+            pool.release(third);
+        } finally {
+            pool.release(second);
+        }
+        assertEquals(0, pool.getInUse());
+        assertTrue(pool.getMaxWaitNanos() > 0);
+        assertTrue(pool.getTotalWaitNanos() >= pool.getMaxWaitNanos());
+        assertTrue(pool.getAcquireCount() >= 3);
+    }
+
+    @Test
+    public void testInvalidRelease() throws Exception {
+        var pool = Shrike.findPool(PooledCodec.class);
+        var instance = pool.acquire();
+        pool.release(instance);
+        assertThrows(IllegalArgumentException.class, () -> pool.release(instance));
+        assertThrows(IllegalArgumentException.class, () -> pool.release(new PooledCodec()));
+        assertEquals(0, pool.getInUse());
+        var first = pool.acquire();
+        var second = pool.acquire();
+        try {
+            assertNull(pool.acquire(10, TimeUnit.MILLISECONDS));
+        } finally {
+            pool.release(first);
+            pool.release(second);
+        }
+    }
+
+    @Test
+    public void testReleaseAfterClose() {
+        var destroyed = RequestCodec.DESTROYED.get();
+        RequestCodec instance;
+        ComponentPool<RequestCodec> pool;
+        try (var child = Shrike.createChild(new RequestScope())) {
+            pool = child.findPool(RequestCodec.class);
+            instance = pool.acquire();
+        }
+        assertEquals(destroyed, RequestCodec.DESTROYED.get());
+        pool.release(instance);
+        assertEquals(destroyed + 1, RequestCodec.DESTROYED.get());
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.test.profile.DefaultStore;
+import me.gilbva.shrike.test.profile.FastStore;
+import me.gilbva.shrike.test.profile.ListFeature;
+import me.gilbva.shrike.test.profile.OptionalFeature;
+import me.gilbva.shrike.test.profile.ProfileScope;
+import me.gilbva.shrike.test.profile.SlowStore;
+import me.gilbva.shrike.test.profile.Store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class ProfileTest {
+    @BeforeAll
+    public static void setUp() {
+        System.setProperty("shrike.profiles", "fast, test");
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        System.clearProperty("shrike.profiles");
+    }
+
+    @Test
+    public void testProfiles() {
+        try (var context = Shrike.createChild(new ProfileScope())) {
+            var stores = context.findAll(Store.class);
+            assertEquals(1, stores.length);
+            assertEquals("FastStore", stores[0].name());
+            assertTrue(context.existsComponent(FastStore.class));
+            assertFalse(context.existsComponent(SlowStore.class));
+            assertFalse(context.existsComponent(DefaultStore.class));
+        }
+    }
+
+    @Test
+    public void testRequiredClasses() {
+        try (var context = Shrike.createChild(new ProfileScope())) {
+            assertNotNull(context.find(ListFeature.class));
+            assertNull(context.find(OptionalFeature.class));
+            assertFalse(context.existsComponent(OptionalFeature.class));
+        }
+    }
+}
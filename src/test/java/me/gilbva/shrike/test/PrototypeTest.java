@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.test.comps.DummyComponent;
+import me.gilbva.shrike.test.prototype.PrototypeComponent;
+import me.gilbva.shrike.test.prototype.PrototypeHolder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+public class PrototypeTest {
+    @Test
+    public void testNewInstancePerLookup() {
+        var before = PrototypeComponent.INITIALIZED.get();
+        var first = Shrike.find(PrototypeComponent.class);
+        var second = Shrike.find(PrototypeComponent.class);
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNotSame(first, second);
+        assertEquals(before + 2, PrototypeComponent.INITIALIZED.get());
+    }
+
+    @Test
+    public void testDependencies() {
+        var first = Shrike.find(PrototypeComponent.class);
+        var second = Shrike.find(PrototypeComponent.class);
+        assertSame(Shrike.find(DummyComponent.class), first.getDummy());
+        assertSame(first.getDummy(), second.getDummy());
+        assertNotNull(first.getState());
+        assertNotSame(first.getState(), second.getState());
+    }
+
+    @Test
+    public void testInjection() {
+        var holder = Shrike.find(PrototypeHolder.class);
+        assertNotNull(holder.getFirst());
+        assertNotNull(holder.getSecond());
+        assertNotSame(holder.getFirst(), holder.getSecond());
+        assertSame(holder, Shrike.find(PrototypeHolder.class));
+    }
+
+    @Test
+    public void testAsync() {
+        var first = Shrike.findAsync(PrototypeComponent.class).join();
+        var second = Shrike.findAsync(PrototypeComponent.class).join();
+        assertNotNull(first);
+        assertNotSame(first, second);
+    }
+}
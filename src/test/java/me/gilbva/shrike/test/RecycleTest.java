@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.context.IocContext;
+import me.gilbva.shrike.test.recycle.RecycleComponent;
+import me.gilbva.shrike.test.recycle.RecycleScope;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Closes contexts while other threads look up their components and create
+ * new contexts of the same scope, with the slots pool enabled.
+ */
+public class RecycleTest {
+    private static final String POOL_SIZE_PROPERTY = "shrike.context.pool.size";
+
+    private static final int ROUNDS = 2000;
+
+    @BeforeAll
+    public static void setUp() {
+        //Read when the template of the scope is created.
+        System.setProperty(POOL_SIZE_PROPERTY, "4");
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        System.clearProperty(POOL_SIZE_PROPERTY);
+    }
+
+    @Test
+    public void testCloseWhileCreating() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            var barrier = new CyclicBarrier(3);
+            for (int i = 0; i < ROUNDS; i++) {
+                var closing = Shrike.createChild(new RecycleScope());
+                Future<?> lookup = executor.submit(() -> {
+                    barrier.await();
+                    try {
+                        while (true) {
+                            //A lookup of the closed context never sees a component of the new one.
+                            var component = closing.find(RecycleComponent.class);
+                            assertSame(closing, component.getContext());
+                        }
+                    } catch (IllegalStateException ex) {
+                        //The context was closed.
+                    }
+                    return null;
+                });
+                Future<IocContext<?>> created = executor.submit(() -> {
+                    barrier.await();
+                    return Shrike.createChild(new RecycleScope());
+                });
+                barrier.await();
+                closing.close();
+                lookup.get();
+                try (var context = created.get()) {
+                    //The new context never sees a component of the closed one.
+                    assertSame(context, context.find(RecycleComponent.class).getContext());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
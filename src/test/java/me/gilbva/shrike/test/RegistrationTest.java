@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.test.comps.DummyComponent;
+import me.gilbva.shrike.test.ctor.Greeter;
+import me.gilbva.shrike.test.ctor.LoudGreeter;
+import me.gilbva.shrike.test.plugin.PluginGreeter;
+import me.gilbva.shrike.test.scope.RequestComponent;
+import me.gilbva.shrike.test.scope.RequestScope;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class RegistrationTest {
+    @Test
+    public void testRegisterComponent() {
+        var destroyed = PluginGreeter.DESTROYED.get();
+        try (var child = Shrike.createChild(new RequestScope())) {
+            assertSame(Shrike.find(LoudGreeter.class), child.find(Greeter.class));
+            child.registerComponent(PluginGreeter.class);
+            assertTrue(child.existsComponent(PluginGreeter.class));
+
+            var greeter = child.find(Greeter.class);
+            assertEquals("Hi World", greeter.greet("World"));
+            assertSame(greeter, child.find(PluginGreeter.class));
+            assertSame(Shrike.find(DummyComponent.class), ((PluginGreeter) greeter).getDummy());
+            assertEquals(1, child.findAll(Greeter.class).length);
+            assertSame(Shrike.find(LoudGreeter.class), Shrike.find(Greeter.class));
+            assertEquals(destroyed, PluginGreeter.DESTROYED.get());
+        }
+        assertEquals(destroyed + 1, PluginGreeter.DESTROYED.get());
+    }
+
+    @Test
+    public void testRegisterInstance() {
+        try (var child = Shrike.createChild(new RequestScope())) {
+            var instance = new StringBuilder("plugin");
+            child.registerInstance(CharSequence.class, instance);
+            assertSame(instance, child.find(CharSequence.class));
+            assertTrue(child.exists(CharSequence.class));
+            assertNull(Shrike.find(CharSequence.class));
+            assertThrows(IllegalArgumentException.class, () -> child.registerInstance(Number.class, "text"));
+            assertThrows(IllegalArgumentException.class, () -> child.registerInstance(CharSequence.class, "text"));
+
+            var other = new StringBuilder("other");
+            child.registerInstance(Appendable.class, other);
+            assertSame(other, child.find(Appendable.class));
+            assertSame(instance, child.find(CharSequence.class));
+        }
+    }
+
+    @Test
+    public void testStubComponent() {
+        try (var child = Shrike.createChild(new RequestScope())) {
+            var stub = new LoudGreeter(name -> "Stub " + name);
+            child.registerInstance(LoudGreeter.class, stub);
+            assertSame(stub, child.find(LoudGreeter.class));
+            assertNotSame(stub, Shrike.find(LoudGreeter.class));
+        }
+    }
+
+    @Test
+    public void testRegisterThenFreeze() {
+        try (var child = Shrike.createChild(new RequestScope())) {
+            child.registerComponent(PluginGreeter.class);
+            child.freeze(true);
+            var greeter = child.find(PluginGreeter.class);
+            assertNotNull(greeter);
+            assertSame(greeter, child.find(Greeter.class));
+        }
+    }
+
+    @Test
+    public void testInvalid() {
+        try (var child = Shrike.createChild(new RequestScope())) {
+            assertThrows(IllegalArgumentException.class, () -> child.registerComponent(RequestComponent.class));
+            assertThrows(IllegalArgumentException.class, () -> child.registerComponent(Greeter.class));
+            child.registerComponent(PluginGreeter.class);
+            assertThrows(IllegalArgumentException.class, () -> child.registerComponent(PluginGreeter.class));
+            child.freeze();
+            assertThrows(IllegalStateException.class, () -> child.registerInstance(CharSequence.class, "text"));
+        }
+    }
+}
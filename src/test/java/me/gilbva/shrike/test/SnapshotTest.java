@@ -0,0 +1,198 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.context.IocContext;
+import me.gilbva.shrike.scope.Scope;
+import me.gilbva.shrike.test.comps.DummyComponent;
+import me.gilbva.shrike.test.snapshot.SnapshotComponent;
+import me.gilbva.shrike.test.snapshot.SnapshotScope;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Every start runs the framework in its own class loader, so the snapshots
+ * never touch the application context of the other tests.
+ */
+public class SnapshotTest {
+    private static final String SNAPSHOT_PROPERTY = "shrike.snapshot";
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    public void tearDown() {
+        System.clearProperty(SNAPSHOT_PROPERTY);
+    }
+
+    @Test
+    public void testSnapshot() throws Exception {
+        var file = dir.resolve("components.snapshot");
+        System.setProperty(SNAPSHOT_PROPERTY, file.toString());
+        assertTrue(start(null));
+        assertTrue(Files.exists(file));
+
+        //The next start reads the snapshot instead of the class path.
+        var prop = load(file);
+        assertNotNull(prop.remove(SnapshotComponent.class.getName()));
+        store(file, prop);
+        assertFalse(start(null));
+    }
+
+    @Test
+    public void testInvalidation() throws Exception {
+        var extra = dir.resolve("extra");
+        var index = extra.resolve("META-INF/shrike/ioc-components.properties");
+        Files.createDirectories(index.getParent());
+        Files.write(index, "#v1\n".getBytes(StandardCharsets.UTF_8));
+        var modified = Files.getLastModifiedTime(index);
+        var file = dir.resolve("components.snapshot");
+        System.setProperty(SNAPSHOT_PROPERTY, file.toString());
+        assertTrue(start(extra));
+        var prop = load(file);
+        prop.remove(SnapshotComponent.class.getName());
+        store(file, prop);
+        assertFalse(start(extra));
+
+        //Changing the contents of an index file discards the snapshot, even
+        //with the same size and modification time.
+        Files.write(index, "#v2\n".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(index, modified);
+        assertTrue(start(extra));
+        assertNotNull(load(file).getProperty(SnapshotComponent.class.getName()));
+    }
+
+    @Test
+    public void testHitSkipsIndex() throws Exception {
+        var file = dir.resolve("components.snapshot");
+        System.setProperty(SNAPSHOT_PROPERTY, file.toString());
+        var lookups = new AtomicInteger();
+        assertTrue(start(null, lookups));
+        assertTrue(lookups.get() > 0);
+
+        //A hit never looks up the index files through the class loader.
+        lookups.set(0);
+        assertTrue(start(null, lookups));
+        assertEquals(0, lookups.get());
+    }
+
+    @Test
+    public void testDerivedMetadata() throws Exception {
+        //An index without metadata, the last one read replaces the entry.
+        var extra = dir.resolve("extra");
+        var index = extra.resolve("META-INF/shrike/ioc-components.properties");
+        Files.createDirectories(index.getParent());
+        Files.write(index, (SnapshotComponent.class.getName() + "=" + SnapshotScope.class.getName() + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+        var file = dir.resolve("components.snapshot");
+        System.setProperty(SNAPSHOT_PROPERTY, file.toString());
+        assertTrue(start(extra));
+
+        //The snapshot keeps the metadata taken from the loaded class.
+        var value = load(file).getProperty(SnapshotComponent.class.getName());
+        assertEquals(SnapshotScope.class.getName() + ";priority=" + Integer.MAX_VALUE + ";services=", value);
+        assertTrue(start(extra));
+    }
+
+    private static boolean start(Path extra) throws Exception {
+        return start(extra, new AtomicInteger());
+    }
+
+    /**
+     * Starts the framework in a new class loader with the class path of the
+     * tests plus an extra directory.
+     *
+     * @param lookups Counts the lookups of index files through the loader.
+     * @return true the snapshot component is found.
+     */
+    private static boolean start(Path extra, AtomicInteger lookups) throws Exception {
+        var urls = new ArrayList<URL>();
+        for (var entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            urls.add(new File(entry).toURI().toURL());
+        }
+        if (extra != null) {
+            urls.add(extra.toUri().toURL());
+        }
+        var thread = Thread.currentThread();
+        var previous = thread.getContextClassLoader();
+        try (var loader = new URLClassLoader(urls.toArray(new URL[0]), ClassLoader.getPlatformClassLoader()) {
+            @Override
+            public Enumeration<URL> getResources(String name) throws IOException {
+                if (name.endsWith("ioc-components.properties")) {
+                    lookups.incrementAndGet();
+                }
+                return super.getResources(name);
+            }
+        }) {
+            thread.setContextClassLoader(loader);
+            var shrike = loader.loadClass(Shrike.class.getName());
+            try {
+                assertNotNull(shrike.getMethod("find", Class.class)
+                        .invoke(null, loader.loadClass(DummyComponent.class.getName())));
+                var scope = loader.loadClass(SnapshotScope.class.getName()).getConstructor().newInstance();
+                var find = loader.loadClass(IocContext.class.getName()).getMethod("find", Class.class);
+                try (var context = (AutoCloseable) shrike.getMethod("createChild", loader.loadClass(Scope.class.getName()))
+                        .invoke(null, scope)) {
+                    return find.invoke(context, loader.loadClass(SnapshotComponent.class.getName())) != null;
+                }
+            } finally {
+                //The eager components are still being created in background.
+                ((CompletableFuture<?>) shrike.getMethod("whenInitialized").invoke(null)).join();
+                shrike.getMethod("reset").invoke(null);
+            }
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    private static Properties load(Path file) throws IOException {
+        var prop = new Properties();
+        try (InputStream is = Files.newInputStream(file)) {
+            prop.load(is);
+        }
+        return prop;
+    }
+
+    private static void store(Path file, Properties prop) throws IOException {
+        try (OutputStream os = Files.newOutputStream(file)) {
+            prop.store(os, null);
+        }
+    }
+}
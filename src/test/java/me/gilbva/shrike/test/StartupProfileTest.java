@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.test.comps.DummyComponent;
+import me.gilbva.shrike.test.ctor.ConstructorService;
+import me.gilbva.shrike.test.startup.PreloadedComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StartupProfileTest {
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    public void tearDown() {
+        System.clearProperty("shrike.startup.record");
+        System.clearProperty("shrike.startup.record.seconds");
+        System.clearProperty("shrike.startup.preload");
+        System.clearProperty("shrike.startup.preload.instantiate");
+        Shrike.reset();
+    }
+
+    @Test
+    public void testRecord() throws IOException {
+        var file = dir.resolve("startup.profile");
+        System.setProperty("shrike.startup.record", file.toString());
+        System.setProperty("shrike.startup.record.seconds", "60");
+        Shrike.reset();
+        Shrike.find(DummyComponent.class);
+        var greeter = Shrike.find(ConstructorService.class).getGreeter().getClass();
+        //Resetting the contexts saves the recording.
+        Shrike.reset();
+
+        var names = Files.readAllLines(file);
+        var dummy = names.indexOf(DummyComponent.class.getName());
+        var service = names.indexOf(ConstructorService.class.getName());
+        assertTrue(dummy >= 0);
+        assertTrue(service > dummy);
+        assertTrue(names.indexOf(greeter.getName()) > service);
+        assertEquals(names.size(), names.stream().distinct().count());
+    }
+
+    @Test
+    public void testExpire() throws InterruptedException {
+        var file = dir.resolve("startup.profile");
+        System.setProperty("shrike.startup.record", file.toString());
+        System.setProperty("shrike.startup.record.seconds", "0");
+        Shrike.reset();
+        //The lookup after the time is over hands the file to a background
+        //thread.
+        Shrike.find(DummyComponent.class);
+        for (int i = 0; i < 100 && !Files.exists(file); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(Files.exists(file));
+    }
+
+    @Test
+    public void testPreload() throws IOException, InterruptedException {
+        var file = dir.resolve("startup.profile");
+        Files.write(file, List.of("me.gilbva.shrike.test.startup.MissingComponent",
+                PreloadedComponent.class.getName()));
+        System.setProperty("shrike.startup.preload", file.toString());
+        System.setProperty("shrike.startup.preload.instantiate", "true");
+        Shrike.reset();
+        PreloadedComponent.CREATED.set(0);
+        Shrike.context();
+        for (int i = 0; i < 100 && PreloadedComponent.CREATED.get() == 0; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(1, PreloadedComponent.CREATED.get());
+        assertEquals("shrike-preload", Shrike.find(PreloadedComponent.class).getThread());
+    }
+}
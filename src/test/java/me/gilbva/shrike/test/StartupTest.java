@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.test.eager.AsyncDependent;
+import me.gilbva.shrike.test.eager.AsyncInitComponent;
+import me.gilbva.shrike.test.eager.EagerComponent;
+import me.gilbva.shrike.test.eager.EagerDependency;
+import me.gilbva.shrike.test.eager.SlowComponent;
+import me.gilbva.shrike.test.eager.WarmComponent;
+import me.gilbva.shrike.test.eager.WarmService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class StartupTest {
+    @Test
+    public void testEagerInstantiation() throws InterruptedException {
+        Shrike.context();
+        assertTrue(EagerComponent.CREATED.await(10, TimeUnit.SECONDS));
+        //Other tests may create more application contexts, check the first one.
+        assertEquals(List.of("dependency", "component"), EagerDependency.INIT_ORDER.subList(0, 2));
+
+        var comp = Shrike.find(EagerComponent.class);
+        assertNotNull(comp.getDependency());
+        assertSame(Shrike.find(EagerDependency.class), comp.getDependency());
+    }
+
+    @Test
+    public void testAsyncInit() throws Exception {
+        var context = Shrike.context().whenInitialized().get(10, TimeUnit.SECONDS);
+        assertSame(Shrike.context(), context);
+
+        var comp = Shrike.find(AsyncDependent.class);
+        assertTrue(comp.isDependencyReady());
+        assertTrue(Shrike.find(AsyncInitComponent.class).isReady());
+    }
+
+    @Test
+    public void testWarmUp() throws Exception {
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var warmUp = Shrike.warmUp(executor, WarmService.class);
+            var found = Shrike.find(WarmService.class);
+            warmUp.get(10, TimeUnit.SECONDS);
+
+            assertTrue(found instanceof WarmComponent);
+            assertSame(found, Shrike.find(WarmService.class));
+            assertEquals(1, WarmComponent.INSTANCES.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrentCreation() throws Exception {
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            var tasks = new ArrayList<Callable<SlowComponent>>();
+            for (int i = 0; i < 8; i++) {
+                tasks.add(() -> Shrike.find(SlowComponent.class));
+            }
+            var futures = executor.invokeAll(tasks);
+            var first = futures.get(0).get();
+            assertNotNull(first);
+            for (var future : futures) {
+                assertSame(first, future.get());
+            }
+            assertEquals(1, SlowComponent.INSTANCES.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
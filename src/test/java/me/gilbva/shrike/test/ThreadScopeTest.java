@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.test.comps.DummyComponent;
+import me.gilbva.shrike.test.scope.RequestScope;
+import me.gilbva.shrike.test.thread.ThreadFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class ThreadScopeTest {
+    @Test
+    public void testSameThread() {
+        var formatter = Shrike.find(ThreadFormatter.class);
+        assertNotNull(formatter);
+        assertSame(formatter, Shrike.find(ThreadFormatter.class));
+        assertSame(Shrike.find(DummyComponent.class), formatter.getDummy());
+        assertEquals(Thread.currentThread().getId(), formatter.getScope().getThreadId());
+        try (var child = Shrike.createChild(new RequestScope())) {
+            assertSame(formatter, child.find(ThreadFormatter.class));
+        }
+    }
+
+    @Test
+    public void testOtherThread() throws Exception {
+        var formatter = Shrike.find(ThreadFormatter.class);
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var other = executor.submit(() -> Shrike.find(ThreadFormatter.class)).get();
+            assertNotNull(other);
+            assertNotSame(formatter, other);
+            assertSame(other, executor.submit(() -> Shrike.find(ThreadFormatter.class)).get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testReleaseThread() throws Exception {
+        var executor = Executors.newSingleThreadExecutor();
+        var result = CompletableFuture.supplyAsync(() ->
+        {
+            var formatter = Shrike.find(ThreadFormatter.class);
+            var destroyed = ThreadFormatter.DESTROYED.get();
+            Shrike.releaseThread();
+            assertEquals(destroyed + 1, ThreadFormatter.DESTROYED.get());
+            return formatter != Shrike.find(ThreadFormatter.class);
+        }, executor).get();
+        executor.shutdown();
+        assertTrue(result);
+    }
+
+    @Test
+    public void testThreadEnd() throws InterruptedException {
+        var destroyed = ThreadFormatter.DESTROYED.get();
+        var thread = new Thread(() -> Shrike.find(ThreadFormatter.class));
+        thread.start();
+        thread.join();
+        thread = null;
+        for (int i = 0; i < 100 && ThreadFormatter.DESTROYED.get() == destroyed; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertTrue(ThreadFormatter.DESTROYED.get() > destroyed);
+    }
+}
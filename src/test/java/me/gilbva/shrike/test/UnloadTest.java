@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.scope.Scope;
+import me.gilbva.shrike.test.comps.DummyComponent;
+import me.gilbva.shrike.test.ctor.Greeter;
+import me.gilbva.shrike.test.unload.PluginClassLoader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class UnloadTest {
+    private static final String PREFIX = "me.gilbva.shrike.test.unload.";
+
+    @Test
+    public void testUnload() throws Exception {
+        var loader = new PluginClassLoader(UnloadTest.class.getClassLoader(), PREFIX);
+        usePlugin(loader);
+        Shrike.unload(loader);
+
+        var ref = new WeakReference<ClassLoader>(loader);
+        loader = null;
+        for (int i = 0; i < 100 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(ref.get());
+    }
+
+    @Test
+    public void testUnloadRegistered() throws Exception {
+        PluginClassLoader.DESTROYED.clear();
+        var loader = new PluginClassLoader(UnloadTest.class.getClassLoader(), PREFIX);
+        registerPlugin(loader);
+        Shrike.unload(loader);
+        assertEquals(List.of("UnloadResource"), PluginClassLoader.DESTROYED);
+
+        var ref = new WeakReference<ClassLoader>(loader);
+        loader = null;
+        for (int i = 0; i < 100 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(ref.get());
+        assertNotNull(Shrike.find(DummyComponent.class));
+    }
+
+    @Test
+    public void testSameName() throws Exception {
+        var loader = new PluginClassLoader(UnloadTest.class.getClassLoader(), Greeter.class.getName());
+        var pluginGreeter = loader.loadClass(Greeter.class.getName());
+        assertNotSame(Greeter.class, pluginGreeter);
+        //The components of the application are not bound to the same name of another loader.
+        assertNull(Shrike.find(pluginGreeter));
+        assertFalse(Shrike.context().exists(pluginGreeter));
+        assertNotNull(Shrike.find(Greeter.class));
+        Shrike.unload(loader);
+    }
+
+    @Test
+    public void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> Shrike.unload(null));
+    }
+
+    private void registerPlugin(ClassLoader loader) throws Exception {
+        var componentCls = loader.loadClass(PREFIX + "UnloadComponent");
+        var resourceCls = loader.loadClass(PREFIX + "UnloadResource");
+        var scopeCls = loader.loadClass(PREFIX + "UnloadScope");
+        var context = Shrike.context();
+        context.registerComponent(componentCls);
+        context.registerComponent(resourceCls);
+        context.registerInstance(scopeCls, scopeCls.getConstructor().newInstance());
+        assertNotNull(context.find(componentCls));
+        assertNotNull(context.find(resourceCls));
+        assertNotNull(context.find(scopeCls));
+        //A plan of an application class caches the plugin component.
+        Shrike.injectMembers(componentCls.getConstructor().newInstance());
+    }
+
+    private void usePlugin(ClassLoader loader) throws Exception {
+        var scopeCls = loader.loadClass(PREFIX + "UnloadScope");
+        var componentCls = loader.loadClass(PREFIX + "UnloadComponent");
+        assertSame(loader, componentCls.getClassLoader());
+
+        var scope = (Scope) scopeCls.getConstructor().newInstance();
+        try (var child = Shrike.createChild(scope)) {
+            child.registerComponent(componentCls);
+            assertNotNull(child.find(componentCls));
+        }
+
+        assertNull(Shrike.find(componentCls));
+        var external = componentCls.getConstructor().newInstance();
+        Shrike.injectMembers(external);
+        assertSame(Shrike.find(DummyComponent.class), componentCls.getMethod("getDummy").invoke(external));
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test.bench;
+
+import java.util.concurrent.Executor;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.context.ContextBinding;
+import me.gilbva.shrike.context.ContextExecutors;
+import me.gilbva.shrike.test.scope.RequestScope;
+
+/**
+ * Measures the overhead that {@link ContextExecutors} adds to every task, the
+ * capture of the bound context at submission and its binding when the task
+ * runs, on an executor that runs the tasks in the calling thread. It only
+ * reports rough timings without the warm up and isolation of a proper
+ * harness, the binding and propagation of the context are verified by
+ * {@code ContextExecutorsTest}.
+ * <p>
+ * Run it after {@literal mvn test-compile} with:
+ * <pre>
+ * java -cp target/classes:target/test-classes me.gilbva.shrike.test.bench.CaptureBenchmark [tasks]
+ * </pre>
+ *
+ * @author Gilberto Vento
+ */
+public class CaptureBenchmark {
+    private static long counter;
+
+    public static void main(String[] args) throws Exception {
+        var tasks = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Executor direct = Runnable::run;
+        var wrapped = ContextExecutors.wrap(direct);
+        Runnable task = () -> counter++;
+        try (var context = Shrike.createChild(new RequestScope())) {
+            for (int i = 0; i < 5; i++) {
+                var plain = measure(direct, task, tasks);
+                var captured = ContextBinding.call(context, () -> measure(wrapped, task, tasks));
+                System.out.printf("binding: %s, plain: %.1f ns/task, captured: %.1f ns/task, overhead: %.1f ns/task%n",
+                        ContextBinding.isScopedValue() ? "ScopedValue" : "ThreadLocal",
+                        plain, captured, captured - plain);
+            }
+        }
+        System.out.println(counter);
+    }
+
+    private static double measure(Executor executor, Runnable task, int tasks) {
+        var start = System.nanoTime();
+        for (int i = 0; i < tasks; i++) {
+            executor.execute(task);
+        }
+        return (double) (System.nanoTime() - start) / tasks;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test.bench;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.context.ContextBinding;
+import me.gilbva.shrike.test.scope.RequestComponent;
+import me.gilbva.shrike.test.scope.RequestScope;
+
+/**
+ * Starts a task per request, every task creates a request context, binds it
+ * and looks up request scoped components while all the other requests are
+ * alive. Virtual threads are used when the JVM supports them, otherwise a
+ * pool of platform threads, so not all the requests are alive at once. It
+ * only reports timings and memory, the isolation and cleanup of the request
+ * contexts are verified by {@code ContextBindingTest}.
+ * <p>
+ * Run it after {@literal mvn test-compile} with:
+ * <pre>
+ * java -cp target/classes:target/test-classes me.gilbva.shrike.test.bench.RequestContextBenchmark [requests]
+ * </pre>
+ *
+ * @author Gilberto Vento
+ */
+public class RequestContextBenchmark {
+    public static void main(String[] args) throws Exception {
+        var requests = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        Shrike.context().whenInitialized().join();
+        run(requests);
+        var runtime = Runtime.getRuntime();
+        System.gc();
+        var before = runtime.totalMemory() - runtime.freeMemory();
+        var result = run(requests);
+        System.out.printf("binding: %s%n", ContextBinding.isScopedValue() ? "ScopedValue" : "ThreadLocal");
+        System.out.printf("requests: %d, alive at once: %d, failed: %d%n", requests, result[1], result[2]);
+        System.out.printf("time: %d ms%n", TimeUnit.NANOSECONDS.toMillis(result[0]));
+        if (result[3] > 0) {
+            System.out.printf("memory at peak: %d KB%n", (result[3] - before) / 1024);
+        }
+    }
+
+    private static long[] run(int requests) throws InterruptedException {
+        var alive = new CountDownLatch(requests);
+        var release = new CountDownLatch(1);
+        var done = new CountDownLatch(requests);
+        var failed = new AtomicInteger();
+        var virtual = createVirtualExecutor();
+        var executor = virtual != null ? virtual : Executors.newFixedThreadPool(256);
+        var start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            executor.execute(() ->
+            {
+                try (var context = Shrike.createChild(new RequestScope())) {
+                    ContextBinding.run(context, () ->
+                    {
+                        var comp = Shrike.find(RequestComponent.class);
+                        if (comp == null || comp.getContext() != context) {
+                            failed.incrementAndGet();
+                        }
+                        alive.countDown();
+                        if (virtual != null) {
+                            await(release);
+                        }
+                    });
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long peak = 0;
+        if (virtual != null) {
+            alive.await();
+            var runtime = Runtime.getRuntime();
+            peak = runtime.totalMemory() - runtime.freeMemory();
+        }
+        release.countDown();
+        done.await();
+        var time = System.nanoTime() - start;
+        executor.shutdown();
+        return new long[]{time, virtual != null ? requests : 256, failed.get(), peak};
+    }
+
+    private static ExecutorService createVirtualExecutor() {
+        try {
+            var method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return null;
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import me.gilbva.shrike.Shrike;
+import me.gilbva.shrike.context.IocContext;
+import me.gilbva.shrike.scope.Application;
+
+/**
+ * Measures the heap retained by every additional root context created with
+ * {@link Shrike#createRoot()}, once their eager components are initialized.
+ * The metadata of the components is shared, so the result should only be
+ * the instances of the eager components plus the slot table of the context.
+ * <p>
+ * Run it after {@literal mvn test-compile} with:
+ * <pre>
+ * java -cp target/classes:target/test-classes me.gilbva.shrike.test.bench.TenantMemoryBenchmark [tenants]
+ * </pre>
+ *
+ * @author Gilberto Vento
+ */
+public class TenantMemoryBenchmark {
+    public static void main(String[] args) throws JMException {
+        var tenants = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        Shrike.whenInitialized().join();
+
+        var contexts = new ArrayList<IocContext<Application>>(tenants);
+        var before = usedHeap();
+        var start = System.nanoTime();
+        for (int i = 0; i < tenants; i++) {
+            contexts.add(Shrike.createRoot());
+        }
+        CompletableFuture.allOf(contexts.stream()
+                .map(IocContext::whenInitialized)
+                .toArray(CompletableFuture[]::new)).join();
+        var elapsed = System.nanoTime() - start;
+        var after = usedHeap();
+
+        System.out.printf("tenants: %d, created in %.1f ms, retained: %d bytes/tenant%n",
+                tenants, elapsed / 1e6, (after - before) / tenants);
+        for (var context : contexts) {
+            context.close();
+        }
+    }
+
+    /**
+     * The live heap as reported by the class histogram of HotSpot, that
+     * collects the garbage first, the usage of the memory beans is not
+     * accurate enough for a few hundred bytes per tenant.
+     */
+    private static long usedHeap() throws JMException {
+        var server = ManagementFactory.getPlatformMBeanServer();
+        var name = new ObjectName("com.sun.management:type=DiagnosticCommand");
+        var histogram = (String) server.invoke(name, "gcClassHistogram",
+                new Object[]{new String[0]}, new String[]{String[].class.getName()});
+        var lines = histogram.trim().split("\n");
+        var total = lines[lines.length - 1].trim().split("\\s+");
+        return Long.parseLong(total[total.length - 1]);
+    }
+}
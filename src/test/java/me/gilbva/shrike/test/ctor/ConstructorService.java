@@ -0,0 +1,62 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test.ctor;
+
+import java.util.List;
+
+import me.gilbva.shrike.annotations.Component;
+import me.gilbva.shrike.annotations.Inject;
+import me.gilbva.shrike.test.comps.DummyComponent;
+
+@Component
+public class ConstructorService {
+    private final DummyComponent dummy;
+
+    private final Greeter greeter;
+
+    private final List<Greeter> greeters;
+
+    @Inject
+    private DummyComponent fieldDummy;
+
+    public ConstructorService(String unused) {
+        throw new IllegalStateException("Not the injected constructor.");
+    }
+
+    @Inject
+    ConstructorService(DummyComponent dummy, Greeter greeter, List<Greeter> greeters) {
+        this.dummy = dummy;
+        this.greeter = greeter;
+        this.greeters = greeters;
+    }
+
+    public DummyComponent getDummy() {
+        return dummy;
+    }
+
+    public Greeter getGreeter() {
+        return greeter;
+    }
+
+    public List<Greeter> getGreeters() {
+        return greeters;
+    }
+
+    public DummyComponent getFieldDummy() {
+        return fieldDummy;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test.external;
+
+import java.util.List;
+
+import me.gilbva.shrike.annotations.Inject;
+import me.gilbva.shrike.test.comps.DummyComponent;
+import me.gilbva.shrike.test.prototype.PrototypeState;
+
+public class ExternalHandler extends ExternalBase {
+    @Inject
+    private DummyComponent dummy;
+
+    @Inject
+    private PrototypeState state;
+
+    @Inject
+    private List<DummyComponent> dummies;
+
+    public DummyComponent getDummy() {
+        return dummy;
+    }
+
+    public PrototypeState getState() {
+        return state;
+    }
+
+    public List<DummyComponent> getDummies() {
+        return dummies;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test.override;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import me.gilbva.shrike.annotations.Inject;
+import me.gilbva.shrike.scope.Scope;
+
+public class OverrideScope implements Scope {
+    private final List<Class<?>> created = new CopyOnWriteArrayList<>();
+
+    @Inject
+    private OverrideResource resource;
+
+    @Override
+    public void preCreateComponent(Class<Object> clazz) {
+        created.add(clazz);
+    }
+
+    @Override
+    public void preInitComponent(Class<Object> clazz, Object instance) {
+        //Nothing to do before the injection.
+    }
+
+    @Override
+    public void postInitComponent(Class<Object> clazz, Object instance) {
+        //Nothing to do after the injection.
+    }
+
+    public OverrideResource getResource() {
+        return resource;
+    }
+
+    public List<Class<?>> getCreated() {
+        return created;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test.scope;
+
+import me.gilbva.shrike.annotations.Component;
+import me.gilbva.shrike.annotations.ComponentDestroy;
+import me.gilbva.shrike.annotations.Inject;
+
+@Component(scope = RequestScope.class)
+public class RequestService {
+    @Inject
+    private RequestResource resource;
+
+    public RequestResource getResource() {
+        return resource;
+    }
+
+    @ComponentDestroy
+    private void destroy() {
+        RequestResource.DESTROYED.add(RequestService.class.getSimpleName());
+    }
+}
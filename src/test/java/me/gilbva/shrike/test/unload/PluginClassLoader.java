@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019 Shrike Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.gilbva.shrike.test.unload;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Defines again the classes of a package, like the class loader of a plugin.
+ */
+public class PluginClassLoader extends ClassLoader {
+    /**
+     * The components of the plugins that were destroyed, kept out of the
+     * plugins so they can be collected.
+     */
+    public static final List<String> DESTROYED = new CopyOnWriteArrayList<>();
+
+    private final String prefix;
+
+    public PluginClassLoader(ClassLoader parent, String prefix) {
+        super(parent);
+        this.prefix = prefix;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!name.startsWith(prefix) || name.endsWith("PluginClassLoader")) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            var cls = findLoadedClass(name);
+            if (cls == null) {
+                var resource = name.replace('.', '/') + ".class";
+                try (var in = getParent().getResourceAsStream(resource)) {
+                    if (in == null) {
+                        throw new ClassNotFoundException(name);
+                    }
+                    var bytes = in.readAllBytes();
+                    cls = defineClass(name, bytes, 0, bytes.length);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+            if (resolve) {
+                resolveClass(cls);
+            }
+            return cls;
+        }
+    }
+}